@@ -0,0 +1,132 @@
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The Board and Search hot paths measured by the JMH benchmarks in benchmarks.HotPaths, one case per benchmark
+ *
+ * JMH only runs benchmark classes that are in a package, and a class in a package cannot name the classes of this
+ * project, which are all in the default package. So each @Benchmark method gets its case from create() by reflection
+ * once, when its trial is set up, and only runs the case while it is measured. Every case sends its results to the
+ * Blackhole so the JIT cannot throw the work away
+ * @author Avery Swank
+ */
+public class BenchmarkCases {
+
+	// Positions as the columns played in order, starting with Player X. None of them has a winning move for either player
+	private static final String[] POSITION_NAMES = {"opening", "middlegame", "endgame"};
+	private static final String[] POSITIONS = {
+		"3323",
+		"33230534410136",
+		"332345412232443165552264305054",
+	};
+
+	private static final Player X = new Player("Benchmark X", "x", "benchmark");
+	private static final Player O = new Player("Benchmark O", "o", "benchmark");
+
+	/**
+	 * Return the case of benchmark 'benchmark' on position 'position' of POSITION_NAMES, played on a 'boardType' (Board or BitBoard)
+	 */
+	public static Consumer<Blackhole> create(String benchmark, String position, String boardType){
+
+		// Measure the searches themselves, not opening book lookups, with the same heuristic weights wherever it is run
+		System.setProperty(OpeningBook.FILE_PROPERTY, "");
+		System.setProperty(HeuristicWeights.FILE_PROPERTY, "");
+
+		Board board = createBoard(boardType, getPosition(position));
+		Player player = (board.getNumMoves() % 2 == 0) ? X : O;
+		Player opponent = (player == X) ? O : X;
+		int side = board.getPlayedSide(player.getSymbol());
+		int[] moves = board.getAvailableColumns();
+
+		switch(benchmark){
+			case "addSymbolRemoveSymbol":
+				return bh -> {
+					for(int i = 0; i < moves.length; i++){
+						board.addSymbol(moves[i], player.getSymbol());
+						board.removeSymbol(moves[i]);
+					}
+					bh.consume(board);
+				};
+			case "copyInto":
+				Board copy = board.copy();
+				return bh -> {
+					board.copyInto(copy);
+					bh.consume(copy);
+				};
+			case "getConnect4":
+				return bh -> bh.consume(board.getConnect4(X, O));
+			case "hasWonAfter":
+				return bh -> bh.consume(board.hasWonAfter(moves[0]));
+			case "getNumStraights":
+				return bh -> bh.consume(board.getNumStraights(player.getSymbol(), 3));
+			case "getAvailableColumns":
+				return bh -> bh.consume(board.getAvailableColumns());
+			case "getHeuristic":
+				return bh -> bh.consume(Search.getHeuristic(board, player, opponent));
+			case "evaluateChildren":
+				BatchEvaluator evaluator = BatchEvaluator.get(board.getRowSize(), board.getColumnSize(), board.getConnectLength());
+				long[] children = new long[2 * moves.length];
+				int[] scores = new int[moves.length];
+				return bh -> {
+					evaluator.encodeChildren(board, side, children, 0);
+					evaluator.evaluate(children, scores);
+					bh.consume(scores);
+				};
+			case "random":
+				return bh -> bh.consume(Search.random(board));
+			case "naive":
+				return bh -> bh.consume(Search.naive(board, player, opponent));
+			case "simple":
+				return bh -> bh.consume(Search.simple(board, player, opponent));
+			case "heuristic":
+				return bh -> bh.consume(Search.nextBestMove(board, player, opponent));
+			case "minimax":
+				return bh -> bh.consume(Search.minimax(board, player, opponent));
+			case "alphaBeta6":
+				// Keeps its transposition table between calls like a Player does between moves, so only the first call fills it
+				AlphaBetaStrategy alphaBeta = new AlphaBetaStrategy();
+				SearchLimits limits = new SearchLimits(6, 0, 1);
+				return bh -> bh.consume(alphaBeta.chooseMove(board, side, limits));
+			default:
+				throw new Error("Unknown benchmark: " + benchmark);
+		}
+	}
+
+	/**
+	 * Return the moves of the position named 'name'
+	 */
+	private static String getPosition(String name){
+
+		for(int i = 0; i < POSITION_NAMES.length; i++){
+			if(POSITION_NAMES[i].equals(name)){
+				return POSITIONS[i];
+			}
+		}
+
+		throw new Error("Unknown benchmark position: " + name);
+	}
+
+	/**
+	 * Return a new 'boardType' with the columns of 'moves' played on it, alternating between Player X and Player O
+	 */
+	private static Board createBoard(String boardType, String moves){
+
+		Board board;
+		if(boardType.equals("Board")){
+			board = new Board();
+		} else if(boardType.equals("BitBoard")){
+			board = new BitBoard();
+		} else {
+			throw new Error("Unknown benchmark board: " + boardType);
+		}
+
+		for(int i = 0; i < moves.length(); i++){
+			int col = moves.charAt(i) - '0';
+			board.addSymbol(col, (i % 2 == 0) ? X.getSymbol() : O.getSymbol());
+			if(board.hasWonAfter(col)) throw new Error("Benchmark position is already won: " + moves);
+		}
+
+		return board;
+	}
+}
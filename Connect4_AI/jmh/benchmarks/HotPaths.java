@@ -0,0 +1,120 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks of the Board and Search hot paths on a fixed opening, middlegame and endgame position, for both Board and BitBoard
+ *
+ * Every benchmark runs in its own forked JVM with its own warmup, so no benchmark shares a call site or a profile
+ * with another. The work of each one is in BenchmarkCases. Run them all with "gradle jmh", or the ones matching a
+ * regex with "gradle jmh -Pjmh.includes=getConnect4". The gc profiler reports the bytes allocated per operation
+ * as gc.alloc.rate.norm
+ * @author Avery Swank
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HotPaths {
+
+	@Param({"opening", "middlegame", "endgame"})
+	public String position;
+
+	@Param({"Board", "BitBoard"})
+	public String board;
+
+	// Case of the benchmark being run on this position and board
+	private Consumer<Blackhole> op;
+
+	@Setup(Level.Trial)
+	@SuppressWarnings("unchecked")
+	public void setup(BenchmarkParams params) throws ReflectiveOperationException {
+
+		String benchmark = params.getBenchmark();
+		benchmark = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+		op = (Consumer<Blackhole>) Class.forName("BenchmarkCases").getMethod("create", String.class, String.class, String.class)
+									   .invoke(null, benchmark, position, board);
+	}
+
+	@Benchmark
+	public void addSymbolRemoveSymbol(Blackhole bh){
+		op.accept(bh);
+	}
+
+	@Benchmark
+	public void copyInto(Blackhole bh){
+		op.accept(bh);
+	}
+
+	@Benchmark
+	public void getConnect4(Blackhole bh){
+		op.accept(bh);
+	}
+
+	@Benchmark
+	public void hasWonAfter(Blackhole bh){
+		op.accept(bh);
+	}
+
+	@Benchmark
+	public void getNumStraights(Blackhole bh){
+		op.accept(bh);
+	}
+
+	@Benchmark
+	public void getAvailableColumns(Blackhole bh){
+		op.accept(bh);
+	}
+
+	@Benchmark
+	public void getHeuristic(Blackhole bh){
+		op.accept(bh);
+	}
+
+	@Benchmark
+	public void evaluateChildren(Blackhole bh){
+		op.accept(bh);
+	}
+
+	@Benchmark
+	public void random(Blackhole bh){
+		op.accept(bh);
+	}
+
+	@Benchmark
+	public void naive(Blackhole bh){
+		op.accept(bh);
+	}
+
+	@Benchmark
+	public void simple(Blackhole bh){
+		op.accept(bh);
+	}
+
+	@Benchmark
+	public void heuristic(Blackhole bh){
+		op.accept(bh);
+	}
+
+	@Benchmark
+	public void minimax(Blackhole bh){
+		op.accept(bh);
+	}
+
+	@Benchmark
+	public void alphaBeta6(Blackhole bh){
+		op.accept(bh);
+	}
+}
@@ -0,0 +1,372 @@
+
+/**
+ * Negamax search with alpha-beta pruning to any depth
+ *
+ * Unlike Search.minimax() the heuristics are backed up the tree: each player picks the move that is best for them,
+ * so the score of a position is the negative of the best score the opponent can reach from it.
+ * Branches that cannot change the result are pruned, which is what makes depths of 8 to 12 plies possible.
+ * Positions already searched through a different move order are looked up in an optional TransTable,
+ * and the moves at every node are searched in the order picked by a MoveOrderer
+ * @author Avery Swank
+ */
+public class AlphaBeta {
+
+	// Score of a Connect 4, minus the number of moves on the board so faster wins score higher
+	public static final int WIN_SCORE = 100000;
+	public static final int INFINITY = 1000000;
+
+	// Player searched for by the searches that do not take a side
+	private Player player;
+
+	// Cache of positions already searched, may be null
+	private TransTable table;
+
+	// Weights of the heuristic the leaves are scored with
+	private HeuristicWeights weights;
+
+	// Work done by the current search, see SearchStats
+	private long nodes;
+	private long leafEvaluations;
+	private long betaCutoffs;
+	private long ttHits;
+	private int maxPly;
+	private long startNanos;
+
+	// Time management: the search stops once System.currentTimeMillis() passes the deadline
+	private long deadline;
+	private boolean stopped;
+
+	// Best root column of the last completed iteration, searched first in the next one
+	private int rootMove;
+
+	// Triangular principal variation table, pv[ply] holds the best line found from that ply
+	private int[][] pv;
+	private int[] pvLength;
+
+	// Columns to search at each ply, best first
+	private MoveOrderer orderer;
+	private int[][] moveBuffers;
+
+	public AlphaBeta(Player _player, TransTable _table){
+		player = _player;
+		table = _table;
+		weights = HeuristicWeights.getDefault();
+	}
+
+	/**
+	 * Search for whichever side is passed to each search, the searches that take a Player cannot be used
+	 */
+	public AlphaBeta(TransTable _table){
+		this(null, _table);
+	}
+
+	/**
+	 * Score the leaves with 'weights' instead of the weights loaded at startup
+	 * The TransTable should not be shared with searches that use other weights
+	 */
+	public void setWeights(HeuristicWeights _weights){
+		weights = _weights;
+	}
+
+	/**
+	 * Search 'depth' plies ahead for 'player' and return the best column
+	 * 'player' has to have played on the board already, pass the side to search from an empty board
+	 */
+	public SearchResult search(Board board, int depth){
+		return search(board, board.getPlayedSide(player.getSymbol()), depth);
+	}
+
+	/**
+	 * Search 'depth' plies ahead for side 'side' (0 or 1) and return the best column
+	 */
+	public SearchResult search(Board board, int side, int depth){
+
+		if(depth < 1) throw new Error("Invalid search depth");
+		if(board.isBoardFull()) throw new Error("Cannot search a full board");
+
+		deadline = Long.MAX_VALUE;
+		stopped = false;
+		rootMove = -1;
+		resetStats();
+		prepareOrderer(board);
+		prepareBuffers(board);
+
+		return searchDepth(board, side, depth);
+	}
+
+	/**
+	 * Iterative deepening: search 1, 2, 3... plies deep until 'millis' milliseconds have passed
+	 * Return the result of the last iteration that finished, an unfinished iteration is thrown away.
+	 * Each iteration searches the best column of the previous one first, and the transposition table
+	 * remembers the best moves further down the tree, so the deeper searches prune much more
+	 */
+	public SearchResult searchTimed(Board board, long millis){
+		return searchTimed(board, board.getPlayedSide(player.getSymbol()), millis);
+	}
+
+	/**
+	 * Same as searchTimed(board, millis) for side 'side' (0 or 1)
+	 */
+	public SearchResult searchTimed(Board board, int side, long millis){
+
+		if(millis < 1) throw new Error("Invalid search time");
+		if(board.isBoardFull()) throw new Error("Cannot search a full board");
+
+		deadline = System.currentTimeMillis() + millis;
+		stopped = false;
+		rootMove = -1;
+		resetStats();
+		prepareOrderer(board);
+		prepareBuffers(board);
+
+		// There is no point searching deeper than the number of empty spaces on the board
+		int maxDepth = board.getRowSize() * board.getColumnSize() - board.getNumMoves();
+
+		SearchResult best = null;
+		for(int depth = 1; depth <= maxDepth; depth++){
+			SearchResult result = searchDepth(board, side, depth);
+			if(stopped){
+				break;
+			}
+
+			best = result;
+			rootMove = result.getColumn();
+
+			// A forced win or loss was found, searching deeper will not change it
+			if(Math.abs(result.getScore()) > WIN_SCORE - 1000){
+				break;
+			}
+
+			if(System.currentTimeMillis() >= deadline){
+				break;
+			}
+		}
+
+		// Report all the work done, including the iteration that ran out of time
+		return new SearchResult(best.getColumn(), best.getScore(), best.getDepth(), best.getPrincipalVariation(), getStats());
+	}
+
+	/**
+	 * Return the score of the board for 'player' searching 'depth' plies with the window [alpha, beta]
+	 * Used to search a single root move on a worker thread, see ParallelSearch
+	 */
+	public int searchWindow(Board board, int depth, int alpha, int beta){
+		return searchWindow(board, board.getPlayedSide(player.getSymbol()), depth, alpha, beta);
+	}
+
+	/**
+	 * Same as searchWindow(board, depth, alpha, beta) for side 'side' (0 or 1)
+	 */
+	public int searchWindow(Board board, int side, int depth, int alpha, int beta){
+
+		deadline = Long.MAX_VALUE;
+		stopped = false;
+		rootMove = -1;
+		resetStats();
+		prepareOrderer(board);
+		prepareBuffers(board);
+
+		return negamax(board, side, depth, alpha, beta, 0);
+	}
+
+	/**
+	 * Return the principal variation found by the last search
+	 */
+	public int[] getPrincipalVariation(){
+
+		int[] line = new int[pvLength[0]];
+		for(int i = 0; i < line.length; i++){
+			line[i] = pv[0][i];
+		}
+
+		return line;
+	}
+
+	/**
+	 * Run a single negamax search 'depth' plies deep from the root
+	 * Return null if the search ran out of time
+	 */
+	private SearchResult searchDepth(Board board, int side, int depth){
+
+		int score = negamax(board, side, depth, -INFINITY, INFINITY, 0);
+		if(stopped){
+			return null;
+		}
+
+		int[] line = getPrincipalVariation();
+		return new SearchResult(line[0], score, depth, line, getStats());
+	}
+
+	/**
+	 * Get the move orderer ready for a new search on 'board', keeping its history from earlier searches
+	 */
+	private void prepareOrderer(Board board){
+
+		if(orderer == null || !orderer.fits(board)){
+			orderer = new MoveOrderer(board.getRowSize(), board.getColumnSize());
+		}
+		orderer.newSearch();
+	}
+
+	/**
+	 * Make the principal variation table and the move buffers the first time a board of this size is searched
+	 * No search can go deeper than the number of empty spaces, so one size for the empty board fits every search after
+	 */
+	private void prepareBuffers(Board board){
+
+		int maxPly = board.getRowSize() * board.getColumnSize() + 1;
+		if(pvLength != null && pvLength.length == maxPly && moveBuffers[0].length == board.getColumnSize()){
+			return;
+		}
+
+		pv = new int[maxPly][maxPly];
+		pvLength = new int[maxPly];
+		moveBuffers = new int[maxPly][board.getColumnSize()];
+	}
+
+	/**
+	 * Start counting the work of a new search
+	 */
+	private void resetStats(){
+		nodes = 0;
+		leafEvaluations = 0;
+		betaCutoffs = 0;
+		ttHits = 0;
+		maxPly = 0;
+		startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Return the work done by the last search
+	 */
+	public SearchStats getStats(){
+		return new SearchStats(1, nodes, leafEvaluations, betaCutoffs, ttHits, maxPly, System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * Return the score of the board for 'side' (0 or 1) who is about to move, searching 'depth' more plies
+	 * Scores outside of [alpha, beta] are not exact, they only prove the position is too good or too bad to matter
+	 */
+	private int negamax(Board board, int side, int depth, int alpha, int beta, int ply){
+
+		nodes++;
+		pvLength[ply] = 0;
+		if(ply > maxPly){
+			maxPly = ply;
+		}
+
+		// Check the clock every 1024 positions, the first iteration is always allowed to finish
+		if((nodes & 1023) == 0 && ply > 0 && rootMove != -1 && System.currentTimeMillis() >= deadline){
+			stopped = true;
+		}
+
+		if(stopped){
+			return 0;
+		}
+
+		// Leaf, score the board from the point of view of the player to move
+		if(depth == 0){
+			leafEvaluations++;
+			return Search.getHeuristic(board, side, weights);
+		}
+
+		// Look up the position in the transposition table
+		// A deep enough result either gives the score outright or narrows the window, its best move is searched first
+		// Mirror images share an entry, so moves are stored as played on the canonical side of the board
+		int alphaOriginal = alpha;
+		int ttMove = -1;
+		long key = board.getCanonicalKey();
+		boolean mirrored = board.isMirrored();
+		if(table != null){
+			long data = table.probe(key);
+			if(data != 0){
+				ttHits++;
+				ttMove = TransTable.getMove(data);
+				if(mirrored && ttMove != -1){
+					ttMove = board.getMirrorColumn(ttMove);
+				}
+				if(ply > 0 && TransTable.getDepth(data) >= depth){
+					int ttScore = TransTable.getScore(data);
+					int bound = TransTable.getBound(data);
+					if(bound == TransTable.EXACT){
+						return ttScore;
+					} else if(bound == TransTable.LOWER && ttScore > alpha){
+						alpha = ttScore;
+					} else if(bound == TransTable.UPPER && ttScore < beta){
+						beta = ttScore;
+					}
+
+					if(alpha >= beta){
+						return ttScore;
+					}
+				}
+			}
+		}
+
+		// The best move of the last iteration goes first at the root, then the transposition table move, killers and history
+		int[] moves = moveBuffers[ply];
+		int count = orderer.orderMoves(board, ply, side, (ply == 0 && rootMove != -1) ? rootMove : ttMove, moves);
+
+		int best = -INFINITY;
+		int bestMove = -1;
+		for(int i = 0; i < count; i++){
+			int col = moves[i];
+
+			board.addPiece(col, side);
+			pvLength[ply + 1] = 0;
+			int score;
+			if(board.hasWonAfter(col)){
+				score = WIN_SCORE - board.getNumMoves();
+			} else if(board.isBoardFull()){
+				score = 0;
+			} else {
+				score = -negamax(board, 1 - side, depth - 1, -beta, -alpha, ply + 1);
+			}
+			board.removeSymbol(col);
+
+			// Out of time, this score is meaningless
+			if(stopped){
+				return 0;
+			}
+
+			if(score > best){
+				best = score;
+				bestMove = col;
+				updatePrincipalVariation(col, ply);
+			}
+
+			if(best > alpha){
+				alpha = best;
+			}
+
+			// The opponent will never allow this position, stop searching it
+			if(alpha >= beta){
+				betaCutoffs++;
+				orderer.addCutoff(ply, side, col, board.getHeight(col), depth);
+				break;
+			}
+		}
+
+		if(table != null){
+			int bound = (best <= alphaOriginal) ? TransTable.UPPER : (best >= beta) ? TransTable.LOWER : TransTable.EXACT;
+			int storedMove = (mirrored && bestMove != -1) ? board.getMirrorColumn(bestMove) : bestMove;
+			table.store(key, depth, bound, best, storedMove);
+		}
+
+		return best;
+	}
+
+	/**
+	 * The best line from 'ply' is 'col' followed by the best line found from the next ply
+	 */
+	private void updatePrincipalVariation(int col, int ply){
+
+		pv[ply][0] = col;
+		int childLength = pvLength[ply + 1];
+		for(int i = 0; i < childLength; i++){
+			pv[ply][i + 1] = pv[ply + 1][i];
+		}
+		pvLength[ply] = childLength + 1;
+	}
+
+}
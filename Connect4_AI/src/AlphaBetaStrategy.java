@@ -0,0 +1,41 @@
+
+/**
+ * Strategy of the "alphabeta" and "iterative" Players: an AlphaBeta search that keeps its transposition table
+ * from one move to the next, so the positions searched for the last move are cutoffs for this one
+ * Searches to the depth of the SearchLimits, or for as long as its time when there is one
+ * @author Avery Swank
+ */
+public class AlphaBetaStrategy implements Strategy {
+
+	private AlphaBeta search;
+	private SearchStats lastStats;
+
+	public AlphaBetaStrategy(){
+		this(new TransTable(TransTable.DEFAULT_SIZE_MB));
+	}
+
+	public AlphaBetaStrategy(TransTable _table){
+		search = new AlphaBeta(_table);
+	}
+
+	public int chooseMove(Board board, int side, SearchLimits limits){
+
+		SearchResult result = OpeningBook.probeDefault(board);
+		if(result == null){
+			if(limits.getMillis() > 0){
+				result = search.searchTimed(board, side, limits.getMillis());
+			} else if(limits.getDepth() > 0){
+				result = search.search(board, side, limits.getDepth());
+			} else {
+				throw new Error("Alpha-beta needs a search depth or a search time");
+			}
+		}
+
+		lastStats = result.getStats();
+		return result.getColumn();
+	}
+
+	public SearchStats getLastStats(){
+		return lastStats;
+	}
+}
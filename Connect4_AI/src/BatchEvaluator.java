@@ -0,0 +1,199 @@
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Scores many positions at once with the same weights as Search.getHeuristic() or Search.getSimpleHeuristic()
+ *
+ * A position is two longs in the BitBoard layout, the pieces of the side being scored then the pieces of the other side:
+ *   positions[2 * i] = side to score, positions[2 * i + 1] = other side
+ * Every winning line of the board size is a mask in the same layout (see LineTable), so scoring a position is
+ * two bit counts per line and a table lookup, in one loop over plain arrays with no Board, no Strings and no calls.
+ * Used for the leaves of Search.nextBestMove() and Search.minimax(), and to score big sets of positions offline
+ * @author Avery Swank
+ */
+public class BatchEvaluator {
+
+	private static final ConcurrentHashMap<String, BatchEvaluator> evaluators = new ConcurrentHashMap<String, BatchEvaluator>();
+
+	private int rowSize;
+	private int columnSize;
+	private int connect;
+
+	// Bits per column including the empty sentinel bit on top, like BitBoard
+	private int columnBits;
+
+	// One mask per line of the LineTable
+	private long[] lineMasks;
+
+	// Score of a line holding 'own' pieces of the side scored and 'opp' of the other side, at lineScores[(own << countBits) | opp]
+	// Looking the score up keeps the loop in evaluate() free of branches
+	private int countBits;
+	private int[] lineScores;
+
+	public BatchEvaluator(int _rowSize, int _columnSize, int _connect){
+		this(_rowSize, _columnSize, _connect, HeuristicWeights.getDefault().getLineWeights());
+	}
+
+	/**
+	 * '_weights' are the scores of lines with connect, connect - 1, connect - 2... pieces, lines with fewer pieces score 0
+	 * ie HeuristicWeights.getLineWeights() for getHeuristic() or getSimpleWeights() for getSimpleHeuristic()
+	 */
+	public BatchEvaluator(int _rowSize, int _columnSize, int _connect, int[] _weights){
+
+		if((_rowSize + 1) * _columnSize > 64) throw new Error("Board is too large for a BatchEvaluator");
+
+		rowSize = _rowSize;
+		columnSize = _columnSize;
+		connect = _connect;
+		columnBits = _rowSize + 1;
+
+		LineTable table = LineTable.get(_rowSize, _columnSize, _connect);
+		int[] cells = table.getLineCells();
+		lineMasks = new long[table.getNumLines()];
+		for(int l = 0; l < lineMasks.length; l++){
+			for(int i = 0; i < _connect; i++){
+				int cell = cells[l * _connect + i];
+				lineMasks[l] |= 1L << ((cell / _rowSize) * columnBits + cell % _rowSize);
+			}
+		}
+
+		// weights[pieces] = score of a line holding 'pieces' of one side and none of the other
+		int[] weights = new int[_connect + 1];
+		for(int k = 0; k < _weights.length && k < _connect; k++){
+			weights[_connect - k] = _weights[k];
+		}
+
+		countBits = 32 - Integer.numberOfLeadingZeros(_connect);
+		lineScores = new int[(_connect + 1) << countBits];
+		for(int own = 0; own <= _connect; own++){
+			for(int opp = 0; opp <= _connect; opp++){
+				// A line only scores for a side while the other side has no pieces in it
+				int score = 0;
+				if(opp == 0){
+					score += weights[own];
+				}
+				if(own == 0){
+					score -= weights[opp];
+				}
+				lineScores[(own << countBits) | opp] = score;
+			}
+		}
+	}
+
+	/**
+	 * Return the evaluator with the weights loaded at startup for a board size, made the first time it is asked for and shared
+	 */
+	public static BatchEvaluator get(int rowSize, int columnSize, int connect){
+		return evaluators.computeIfAbsent(rowSize + "x" + columnSize + "x" + connect, k -> new BatchEvaluator(rowSize, columnSize, connect));
+	}
+
+	/**
+	 * Same as get() with the weights of getSimpleHeuristic() loaded at startup
+	 */
+	public static BatchEvaluator getSimple(int rowSize, int columnSize, int connect){
+		return evaluators.computeIfAbsent("simple " + rowSize + "x" + columnSize + "x" + connect, 
+										  k -> new BatchEvaluator(rowSize, columnSize, connect, HeuristicWeights.getDefault().getSimpleWeights()));
+	}
+
+	/**
+	 * Return true if the searches should score the leaves of 'board' in batches:
+	 * it is a BitBoard, so its pieces are already in the layout of the positions
+	 */
+	public static boolean supports(Board board){
+		return board instanceof BitBoard;
+	}
+
+	/**
+	 * Score every position of 'positions' into 'scores', see the class comment for the layout
+	 */
+	public void evaluate(long[] positions, int[] scores){
+		evaluate(positions, positions.length / 2, scores);
+	}
+
+	/**
+	 * Score the first 'count' positions of 'positions' into the first 'count' entries of 'scores'
+	 */
+	public void evaluate(long[] positions, int count, int[] scores){
+
+		if(positions.length < 2 * count || scores.length < count) throw new Error("Invalid number of positions");
+
+		long[] masks = lineMasks;
+		int[] table = lineScores;
+		int shift = countBits;
+		for(int i = 0; i < count; i++){
+			long own = positions[2 * i];
+			long opp = positions[2 * i + 1];
+
+			int score = 0;
+			for(int l = 0; l < masks.length; l++){
+				long mask = masks[l];
+				score += table[(Long.bitCount(own & mask) << shift) | Long.bitCount(opp & mask)];
+			}
+			scores[i] = score;
+		}
+	}
+
+	/**
+	 * Write the position of 'board' scored for side 'side' (0 or 1) as position 'index' of 'positions'
+	 * Any board of this size works, a BitBoard is copied straight from its bitboards
+	 */
+	public void encode(Board board, int side, long[] positions, int index){
+
+		if(!fits(board)) throw new Error("Board does not fit this BatchEvaluator");
+
+		positions[2 * index] = getBits(board, side);
+		positions[2 * index + 1] = getBits(board, 1 - side);
+	}
+
+	/**
+	 * Write the position after every move 'side' (0 or 1) can play on 'board', scored for 'side', starting at position 'index'
+	 * Return the number of positions written, one per available column in column order. 'board' is not changed
+	 */
+	public int encodeChildren(Board board, int side, long[] positions, int index){
+
+		if(!fits(board)) throw new Error("Board does not fit this BatchEvaluator");
+
+		long own = getBits(board, side);
+		long opp = getBits(board, 1 - side);
+		int count = 0;
+		for(int c = 0; c < columnSize; c++){
+			int height = board.getHeight(c);
+			if(height == rowSize){
+				continue;
+			}
+
+			positions[2 * (index + count)] = own | (1L << (c * columnBits + height));
+			positions[2 * (index + count) + 1] = opp;
+			count++;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Return the pieces of side 'side' on 'board' in the BitBoard layout
+	 */
+	private long getBits(Board board, int side){
+
+		if(board instanceof BitBoard){
+			return ((BitBoard) board).getSideBits(side);
+		}
+
+		long bits = 0L;
+		for(int c = 0; c < columnSize; c++){
+			for(int h = 0; h < board.getHeight(c); h++){
+				if(board.getSideAt(rowSize - 1 - h, c) == side){
+					bits |= 1L << (c * columnBits + h);
+				}
+			}
+		}
+
+		return bits;
+	}
+
+	/**
+	 * Return true if 'board' has the size and connect length of this evaluator
+	 */
+	public boolean fits(Board board){
+		return board.getRowSize() == rowSize && board.getColumnSize() == columnSize && board.getConnectLength() == connect;
+	}
+}
@@ -0,0 +1,210 @@
+
+/**
+ * Same game board as Board but the pieces are stored as two long bitboards, one for each symbol
+ * Only fits boards with (rows + 1) * columns <= 64, bigger boards use a WideBitBoard
+ *
+ * Each column takes (rowSize + 1) bits starting from the bottom of the column, the extra bit at the
+ * top of each column is always empty so straights cannot wrap from one column to the next:
+ *
+ *   6 13 20 27 34 41 48
+ *   5 12 19 26 33 40 47
+ *   4 11 18 25 32 39 46
+ *   3 10 17 24 31 38 45
+ *   2  9 16 23 30 37 44
+ *   1  8 15 22 29 36 43
+ *   0  7 14 21 28 35 42
+ *
+ * Adding and removing a symbol is O(1) with no allocation, which is what the search functions spend most of their time doing
+ * @author Avery Swank
+ */
+public class BitBoard extends Board {
+
+	// Bits per column including the empty sentinel bit on top
+	private int columnBits;
+
+	// Shifts for vertical, horizontal and the two diagonal directions
+	private int[] directions;
+	private boolean connect4;
+
+	// Pieces of the first and second symbol played on this board
+	private long[] sides;
+
+	private int[] heights;
+	private int numMoves;
+
+	// Default Game Board is 6 rows * 7 columns
+	public BitBoard(){
+		this(6, 7);
+	}
+
+	public BitBoard(int _rowSize, int _columnSize){
+		this(_rowSize, _columnSize, 4);
+	}
+
+	public BitBoard(int _rowSize, int _columnSize, int _connect){
+		super(_rowSize, _columnSize, _connect, false);
+
+		if((_rowSize + 1) * _columnSize > 64) throw new Error("Board is too large for a BitBoard");
+
+		columnBits = _rowSize + 1;
+		directions = new int[]{1, columnBits, columnBits - 1, columnBits + 1};
+		connect4 = (_connect == 4);
+		sides = new long[2];
+		heights = getHeightArray();
+		numMoves = 0;
+	}
+
+	/**
+	 * Set all spaces in the board to empty
+	 */
+	public void emptyBoard(){
+		super.emptyBoard();
+
+		sides[0] = 0L;
+		sides[1] = 0L;
+		numMoves = 0;
+	}
+
+	/**
+	 * Make 'target' the same position as this board without allocating anything, see Board.copyInto()
+	 */
+	public void copyInto(Board target){
+		super.copyInto(target);
+
+		BitBoard board = (BitBoard) target;
+		board.sides[0] = sides[0];
+		board.sides[1] = sides[1];
+		board.numMoves = numMoves;
+	}
+
+	protected Board newEmptyBoard(){
+		return new BitBoard(getRowSize(), getColumnSize(), getConnectLength());
+	}
+
+	/**
+	 * Return the side (0 or 1) of the piece at position (row, column)
+	 * Otherwise return -1 if it is empty
+	 */
+	public int getSideAt(int row, int column){
+
+		if(row < 0 || row > getRowSize() - 1) throw new Error("Invalid row position");
+		if(column < 0 || column > getColumnSize() - 1) throw new Error("Invalid column position");
+
+		// Rows are counted from the top of the board, bits from the bottom of the column
+		int height = getRowSize() - 1 - row;
+		if(height >= heights[column]){
+			return -1;
+		}
+
+		long bit = 1L << (column * columnBits + height);
+		return (sides[0] & bit) != 0 ? 0 : 1;
+	}
+
+	/**
+	 * Return the pieces of side 'side' (0 or 1) as a bitboard, see the class comment for the layout
+	 */
+	public long getSideBits(int side){
+		return sides[side];
+	}
+
+	/**
+	 * Return the number of moves played on the board
+	 */
+	public int getNumMoves(){
+		return numMoves;
+	}
+
+	/**
+	 * Return true if the entire board is full, check for tie games
+	 */
+	public boolean isBoardFull(){
+		return numMoves == getRowSize() * getColumnSize();
+	}
+
+	/**
+	 * Play a piece of side 'side' (0 or 1) on a column, set the bit above the top piece of that column
+	 */
+	public void addPiece(int column, int side){
+
+		if(isFull(column)) throw new Error("Cannot add a symbol to a full column");
+		if(side < 0 || side > 1) throw new Error("Invalid side");
+
+		updateLines(column, heights[column], side, 1);
+		sides[side] |= 1L << (column * columnBits + heights[column]);
+		key ^= zobrist[side][column * getRowSize() + heights[column]];
+		mirrorKey ^= zobrist[side][getMirrorColumn(column) * getRowSize() + heights[column]];
+		heights[column]++;
+		numMoves++;
+		numAdded++;
+	}
+
+	/**
+	 * Remove the top piece of a column. Necessary for search algorithms when creating multiple boards
+	 */
+	public void removeSymbol(int column){
+
+		if(column < 0 || column > getColumnSize() - 1) throw new Error("Invalid column position");
+		if(heights[column] == 0) throw new Error("Cannot Remove a Symbol from an empty column");
+
+		// Only one of the two sides has the top bit, clear it from both
+		heights[column]--;
+		long bit = 1L << (column * columnBits + heights[column]);
+		int side = (sides[0] & bit) != 0 ? 0 : 1;
+		sides[0] &= ~bit;
+		sides[1] &= ~bit;
+		key ^= zobrist[side][column * getRowSize() + heights[column]];
+		mirrorKey ^= zobrist[side][getMirrorColumn(column) * getRowSize() + heights[column]];
+		numMoves--;
+		updateLines(column, heights[column], side, -1);
+	}
+
+	/**
+	 * Return true if the top piece of a column is part of a Connect 4
+	 * A few shifts and masks on the bitboard of that piece's side, no Strings are built
+	 */
+	public boolean hasWonAfter(int column){
+
+		if(column < 0 || column > getColumnSize() - 1) throw new Error("Invalid column position");
+		if(heights[column] == 0) return false;
+
+		long bit = 1L << (column * columnBits + heights[column] - 1);
+		int side = (sides[0] & bit) != 0 ? 0 : 1;
+		return hasConnect4(sides[side]);
+	}
+
+	/**
+	 * Return true if there are connect (four) bits in a row in any direction
+	 * Shifting by 1 is vertical, columnBits is horizontal, columnBits-1 and columnBits+1 are the two diagonals
+	 */
+	private boolean hasConnect4(long bits){
+
+		// Connect 4 takes two shifts per direction, pairs of pairs
+		if(connect4){
+			for(int i = 0; i < directions.length; i++){
+				int d = directions[i];
+				long pairs = bits & (bits >>> d);
+				if((pairs & (pairs >>> (2 * d))) != 0){
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		int connect = getConnectLength();
+		for(int i = 0; i < directions.length; i++){
+			int d = directions[i];
+			long run = bits;
+			for(int k = 1; k < connect && run != 0; k++){
+				// A shift past the end of the long means the line cannot fit on the board
+				run = (k * d < 64) ? run & (bits >>> (k * d)) : 0L;
+			}
+			if(run != 0){
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+}
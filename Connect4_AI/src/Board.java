@@ -1,34 +1,106 @@
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Contains all game board information as well as functions to interact with the game board
+ *
+ * A board can have any number of rows and columns and any connect length N, the standard game is 6x7 and connect 4.
+ * Use Board.create() for the fastest board of a given size: a BitBoard when it fits in one long, otherwise a WideBitBoard
+ *
+ * Pieces are stored by side, 0 for the first symbol played on the board and 1 for the second, and the
+ * Player symbols are only kept to print the board. The search functions play with addPiece(column, side)
+ * so no Strings are compared or built while searching
  * @author Avery Swank
  */
 public class Board {
 
+	// Straights counted by getNumStraights() by connect length, see createStraights()
+	private static final ConcurrentHashMap<Integer, byte[][][]> straightTables = new ConcurrentHashMap<Integer, byte[][][]>();
+
 	private int rowSize;
 	private int columnSize;
 	
-	private String[][] board;
+	// Pieces in a row needed to win
+	private int connect;
+	
+	// Pieces as side + 1, 0 for an empty cell. Boards that store the pieces themselves leave this null
+	private byte[][] cells;
 	private int[] heights;
 	
+	// Straights of this connect length and one row, column or diagonal at a time for getNumStraights(), made on its first call
+	private byte[][][] straights;
+	private byte[] line;
+	
+	// Every winning line of this board size and the lines through each cell, see LineTable
+	private LineTable lines;
+	private int[] cellOffsets;
+	private int[] cellLines;
+	
+	// lineCounts[side][line] = number of pieces of that side in the line
+	// windowCounts[side][pieces] = number of lines holding 'pieces' of that side and none of the other side
+	// Both are kept up to date on every addPiece/removeSymbol by only looking at the lines through the changed cell
+	private byte[][] lineCounts;
+	private int[][] windowCounts;
+	
+	// The first two symbols played on the board are sides 0 and 1
+	private String[] symbols;
+	
+	// Zobrist tables by number of cells, shared by every board of that size
+	private static final ConcurrentHashMap<Integer, long[][]> zobristTables = new ConcurrentHashMap<Integer, long[][]>();
+	
+	// Zobrist hashing: one random key per (side, cell), the key of a position is the XOR of the keys of its pieces
+	// Boards that store the pieces themselves update the keys and numAdded in their own addPiece/removeSymbol
+	protected long[][] zobrist;
+	protected long key;
+	
+	// Key of the same position flipped left to right, see getCanonicalKey()
+	protected long mirrorKey;
+	
+	// Number of symbols ever added, ie positions created by searches on this board
+	protected long numAdded;
+	
 	// Default Game Board is 6 rows * 7 columns
 	public Board(){
 		this(6, 7);
 	}
 	
 	public Board(int _rowSize, int _columnSize){
+		this(_rowSize, _columnSize, 4);
+	}
+	
+	public Board(int _rowSize, int _columnSize, int _connect){
+		this(_rowSize, _columnSize, _connect, true);
+	}
+	
+	/**
+	 * Boards that keep their own representation of the pieces (ie BitBoard) skip allocating the String grid.
+	 * Column heights are always kept here
+	 */
+	protected Board(int _rowSize, int _columnSize, int _connect, boolean _useGrid){
 		
-		if(_rowSize < 6) throw new Error("Invalid rowSize parameter");
-		if(_columnSize < 7) throw new Error("Invalid columnSize parameter");
+		if(_rowSize < 1) throw new Error("Invalid rowSize parameter");
+		if(_columnSize < 1 || _columnSize > Byte.MAX_VALUE) throw new Error("Invalid columnSize parameter");
+		if(_connect < 2 || _connect > Math.max(_rowSize, _columnSize)) throw new Error("Invalid connect length");
 		
 		rowSize = _rowSize;
 		columnSize = _columnSize;
+		connect = _connect;
 		
-		board = new String[rowSize][columnSize];
 		heights = new int[columnSize];
-		
-		emptyBoard();
+		symbols = new String[2];
+		
+		lines = LineTable.get(rowSize, columnSize, connect);
+		cellOffsets = lines.getCellOffsets();
+		cellLines = lines.getCellLines();
+		lineCounts = new byte[2][lines.getNumLines()];
+		windowCounts = new int[2][connect + 1];
+		zobrist = getZobristKeys(rowSize * columnSize);
+		
+		if(_useGrid){
+			cells = new byte[rowSize][columnSize];
+			emptyBoard();
+		}
 	}
 	
 	/**
@@ -37,9 +109,11 @@ public class Board {
 	public void emptyBoard(){
 		
 		// Set board to empty
-		for(int i = 0; i < rowSize; i++){
-			for(int j = 0; j < columnSize; j++){
-				board[i][j] = "e";
+		if(cells != null){
+			for(int i = 0; i < rowSize; i++){
+				for(int j = 0; j < columnSize; j++){
+					cells[i][j] = 0;
+				}
 			}
 		}
 		
@@ -47,16 +121,36 @@ public class Board {
 		for(int i = 0; i < columnSize; i++){
 			heights[i] = 0;
 		}
+		
+		symbols[0] = null;
+		symbols[1] = null;
+		key = 0L;
+		mirrorKey = 0L;
+		
+		for(int i = 0; i < 2; i++){
+			Arrays.fill(lineCounts[i], (byte) 0);
+			Arrays.fill(windowCounts[i], 0);
+		}
 	}
 	
 	/**
-	 * Return the symbol at position (row, column)
+	 * Return the symbol at position (row, column), "e" if it is empty
 	 */
 	public String getPosition(int row, int column){
 		
+		int side = getSideAt(row, column);
+		return (side == -1) ? "e" : symbols[side];
+	}
+	
+	/**
+	 * Return the side (0 or 1) of the piece at position (row, column)
+	 * Otherwise return -1 if it is empty
+	 */
+	public int getSideAt(int row, int column){
+		
 		if(row < 0 || row > rowSize - 1) throw new Error("Invalid row position");
 		if(column < 0 || column > columnSize - 1) throw new Error("Invalid column position");
-		return board[row][column];
+		return cells[row][column] - 1;
 	}
 	
 	/**
@@ -95,6 +189,30 @@ public class Board {
 		return available;
 	}
 	
+	/**
+	 * Write the available columns into 'buffer' and return how many there are
+	 * Same columns as getAvailableColumns() without allocating a new array, 'buffer' needs room for every column
+	 */
+	public int getAvailableColumns(int[] buffer){
+		
+		int size = 0;
+		for(int i = 0; i < columnSize; i++){
+			if(!isFull(i)){
+				buffer[size] = i;
+				size++;
+			}
+		}
+		return size;
+	}
+	
+	/**
+	 * Return the number of symbols in a column
+	 */
+	public int getHeight(int column){
+		if(column < 0 || column > columnSize - 1) throw new Error("Invalid column position");
+		return heights[column];
+	}
+	
 	/**
 	 * Return true if the column is empty of symbols
 	 * Otherwise, false
@@ -133,16 +251,24 @@ public class Board {
 	public void addSymbol(int column, String _symbol){
 		
 		if(isFull(column)) throw new Error("Cannot add a symbol to a full column");
-		if(column < 0 || column > columnSize - 1) throw new Error("Invalid column position");
+		addPiece(column, getSide(_symbol));
+	}
+	
+	/**
+	 * Play a piece of side 'side' (0 or 1) on a column, same as addSymbol() without looking up the symbol
+	 */
+	public void addPiece(int column, int side){
 		
-		// Add the first symbol on the bottom of the column ie gravity pulls the piece to the bottom
-		for(int i = rowSize-1; i >= 0; i--){
-			if(board[i][column].equals("e")){
-				board[i][column] = _symbol;
-				heights[column]++;
-				return;
-			}
-		}
+		if(isFull(column)) throw new Error("Cannot add a symbol to a full column");
+		if(side < 0 || side > 1) throw new Error("Invalid side");
+		
+		// Gravity pulls the piece to the bottom, right on top of the pieces already in the column
+		updateLines(column, heights[column], side, 1);
+		cells[rowSize - 1 - heights[column]][column] = (byte) (side + 1);
+		key ^= zobrist[side][column * rowSize + heights[column]];
+		mirrorKey ^= zobrist[side][getMirrorColumn(column) * rowSize + heights[column]];
+		heights[column]++;
+		numAdded++;
 	}
 	
 	/**
@@ -153,100 +279,91 @@ public class Board {
 		if(column < 0 || column > columnSize - 1) throw new Error("Invalid column position");
 		if(heights[column] == 0) throw new Error("Cannot Remove a Symbol from an empty column");
 		
-		// Add the first symbol on the bottom of the column ie gravity pulls the piece to the bottom
-		for(int i = 0; i < rowSize; i++){
-			if(!board[i][column].equals("e")){
-				board[i][column] = "e";
-				heights[column]--;
-				return;
+		// The top piece of the column is right below the first empty space
+		heights[column]--;
+		int row = rowSize - 1 - heights[column];
+		int side = cells[row][column] - 1;
+		cells[row][column] = 0;
+		key ^= zobrist[side][column * rowSize + heights[column]];
+		mirrorKey ^= zobrist[side][getMirrorColumn(column) * rowSize + heights[column]];
+		updateLines(column, heights[column], side, -1);
+	}
+	
+	/**
+	 * Update lineCounts and windowCounts for a piece of 'side' being added (delta 1) or removed (delta -1) at (column, height)
+	 * Must be called while the cell is empty, ie before adding the piece or after removing it.
+	 * Boards that keep their own representation of the pieces call this from their own addPiece/removeSymbol
+	 */
+	protected void updateLines(int column, int height, int side, int delta){
+		
+		int other = 1 - side;
+		byte[] ownCounts = lineCounts[side];
+		byte[] otherCounts = lineCounts[other];
+		int cell = column * rowSize + height;
+		for(int i = cellOffsets[cell]; i < cellOffsets[cell + 1]; i++){
+			int l = cellLines[i];
+			if(delta < 0){
+				ownCounts[l]--;
+			}
+			
+			int own = ownCounts[l];
+			int opp = otherCounts[l];
+			if(opp == 0){
+				// Line moves from 'own' to 'own + 1' pieces of this side
+				if(own > 0){
+					windowCounts[side][own] -= delta;
+				}
+				windowCounts[side][own + 1] += delta;
+			} else if(own == 0){
+				// Line of the other side gets blocked (or unblocked)
+				windowCounts[other][opp] -= delta;
+			}
+			
+			if(delta > 0){
+				ownCounts[l]++;
 			}
 		}
 	}
 	
 	/**
-	 * Return the symbol that has a connect 4
+	 * Return the symbol that has a connect 4, or connect N on boards with a different connect length
 	 * Otherwise return "" indicating that no player has a Connect 4
+	 * A full line of one side is a Connect 4, so this only looks at the line counts
 	 */
 	public String getConnect4(Player p1, Player p2){
 		
-		String s = "";
-		
-		String p1Sequence = "";
-		String p2Sequence = "";
-		for(int i = 0; i < 4; i++){
-			p1Sequence += p1.getSymbol();
-			p2Sequence += p2.getSymbol();
+		int side1 = findSide(p1.getSymbol());
+		if(side1 != -1 && windowCounts[side1][connect] > 0){
+			return p1.getSymbol();
 		}
 		
-		// Check a Connect 4 in all rows
-		for(int i = 0; i < rowSize; i++){
-			s = getRow(i);
-			
-			if(s.contains(p1Sequence)){
-				return p1.getSymbol();
-			}
-			
-			if(s.contains(p2Sequence)){
-				return p2.getSymbol();
-			}
-					
-			s = "";
+		int side2 = findSide(p2.getSymbol());
+		if(side2 != -1 && windowCounts[side2][connect] > 0){
+			return p2.getSymbol();
 		}
 		
-		// Check a Connect 4 in all columns
-		for(int i = 0; i < columnSize; i++){
-			s = getColumn(i);
-			
-			if(s.contains(p1Sequence)){
-				return p1.getSymbol();
-			}
-			
-			if(s.contains(p2Sequence)){
-				return p2.getSymbol();
-			}
-			
-			s = "";
-		}
+		return "";
+	}
 
-		// Check a Connect 4 in all top-left to down-right straights
-		for(int i = 0; i < rowSize-3; i++){
-			for(int j = 0; j < columnSize-3; j++){
-				for(int k = 0; k < 4; k++){
-					s += getPosition(i+k, j+k);
-				}
-				
-				if(s.contains(p1Sequence)){
-					return p1.getSymbol();
-				}
-				
-				if(s.contains(p2Sequence)){
-					return p2.getSymbol();
-				}
-				
-				s = "";
-			}
-		}
+	/**
+	 * Return true if the top piece of a column is part of a Connect 4
+	 * Only the lines through that piece are checked, so call this right after addSymbol(column)
+	 */
+	public boolean hasWonAfter(int column){
 		
-		// Check a Connect 4 in all bottom-left to top-right straights
-		for(int i = rowSize-1; i >= rowSize-3; i--){
-			for(int j = 0; j < columnSize-3; j++){
-				for(int k = 0; k < 4; k++){
-					s += getPosition(i-k, j+k);
-				}
-				
-				if(s.contains(p1Sequence)){
-					return p1.getSymbol();
-				}
-				
-				if(s.contains(p2Sequence)){
-					return p2.getSymbol();
-				}
-				
-				s = "";
+		if(column < 0 || column > columnSize - 1) throw new Error("Invalid column position");
+		if(heights[column] == 0) return false;
+		
+		int side = getSideAt(rowSize - heights[column], column);
+		byte[] counts = lineCounts[side];
+		int cell = column * rowSize + heights[column] - 1;
+		for(int i = cellOffsets[cell]; i < cellOffsets[cell + 1]; i++){
+			if(counts[cellLines[i]] == connect){
+				return true;
 			}
 		}
 		
-		return "";
+		return false;
 	}
 
 	/**
@@ -256,105 +373,199 @@ public class Board {
 	 */
 	public int getNumStraights(String symbol, int length){
 		
-		String s = "";
-		int count = 0;
+		if(length < 1 || length > connect) throw new Error("Invalid length");
 		
-		ArrayList<String> combos = new ArrayList<String>();
-		switch(length){
-			case 1:
-				combos.add("e" + symbol + "e");
-				break;
-			case 2:
-				combos.add("e" + symbol + symbol + "e");
-				combos.add("e" + symbol + symbol);
-				combos.add(symbol + "e" + symbol);
-				combos.add(symbol + symbol + "e");
-				break;
-			case 3:
-				combos.add("e" + symbol + symbol + symbol + "e");
-				combos.add("e" + symbol + symbol + symbol);
-				combos.add(symbol + "e" + symbol + symbol);
-				combos.add(symbol + symbol + "e" + symbol);
-				combos.add(symbol + symbol + symbol + "e");
-				break;
-			case 4:
-				combos.add(symbol + symbol + symbol + symbol);
-				break;
-			default:
-				throw new Error("Invalid length");
+		// A symbol that is not on the board has no straights
+		int side = findSide(symbol);
+		if(side == -1){
+			return 0;
+		}
+		
+		return getNumStraights(side, length);
+	}
+	
+	/**
+	 * Same as getNumStraights(symbol, length) for the pieces of side 'side' (0 or 1)
+	 * Each row and column, and each diagonal window of connect cells, counts each kind of straight once
+	 */
+	public int getNumStraights(int side, int length){
+		
+		if(length < 1 || length > connect) throw new Error("Invalid length");
+		
+		// Only the boards this is called on pay for the patterns and the line buffer
+		if(straights == null){
+			straights = straightTables.computeIfAbsent(connect, Board::createStraights);
+			line = new byte[Math.max(rowSize, columnSize)];
 		}
 		
+		byte[][] patterns = straights[length];
+		int count = 0;
+		
 		// Check a Connect 4 in all rows
 		for(int i = 0; i < rowSize; i++){
-			s = getRow(i);
-			
-			for(int z = 0; z < combos.size(); z++){
-				String comboString = combos.get(z);
-				
-				if(s.contains(comboString)){
-					count++;
-				}
+			for(int j = 0; j < columnSize; j++){
+				line[j] = getCellCode(side, i, j);
 			}
-					
-			s = "";
+			count += countStraights(patterns, columnSize);
 		}
 		
 		// Check a Connect 4 in all columns
-		for(int i = 0; i < columnSize; i++){
-			s = getColumn(i);
-			
-			for(int z = 0; z < combos.size(); z++){
-				String comboString = combos.get(z);
-				
-				if(s.contains(comboString)){
-					count++;
-				}
+		for(int j = 0; j < columnSize; j++){
+			for(int i = 0; i < rowSize; i++){
+				line[i] = getCellCode(side, i, j);
 			}
-			
-			s = "";
+			count += countStraights(patterns, rowSize);
 		}
 
 		// Check a Connect 4 in all top-left to down-right straights
-		for(int i = 0; i < rowSize-3; i++){
-			for(int j = 0; j < columnSize-3; j++){
-				for(int k = 0; k < 4; k++){
-					s += getPosition(i+k, j+k);
+		for(int i = 0; i <= rowSize-connect; i++){
+			for(int j = 0; j <= columnSize-connect; j++){
+				for(int k = 0; k < connect; k++){
+					line[k] = getCellCode(side, i+k, j+k);
 				}
-				
-				for(int z = 0; z < combos.size(); z++){
-					String comboString = combos.get(z);
-					
-					if(s.contains(comboString)){
-						count++;
-					}
+				count += countStraights(patterns, connect);
+			}
+		}
+		
+		// Check a Connect 4 in all bottom-left to top-right straights, starting from every row with room above it
+		for(int i = rowSize-1; i >= connect-1; i--){
+			for(int j = 0; j <= columnSize-connect; j++){
+				for(int k = 0; k < connect; k++){
+					line[k] = getCellCode(side, i-k, j+k);
 				}
-				
-				s = "";
+				count += countStraights(patterns, connect);
 			}
 		}
 		
-		// Check a Connect 4 in all bottom-left to top-right straights
-		for(int i = rowSize-1; i >= rowSize-3; i--){
-			for(int j = 0; j < columnSize-3; j++){
-				for(int k = 0; k < 4; k++){
-					s += getPosition(i-k, j+k);
+		return count;
+	}
+	
+	/**
+	 * Return 0 if (row, column) is empty, 1 if it holds a piece of 'side' and 2 if it holds a piece of the other side
+	 */
+	private byte getCellCode(int side, int row, int column){
+		
+		int s = getSideAt(row, column);
+		if(s == -1){
+			return 0;
+		}
+		
+		return (byte) ((s == side) ? 1 : 2);
+	}
+	
+	/**
+	 * Return the straights counted by getNumStraights() for each length up to 'connect', 0 is an empty cell and 1 a piece of the side counted
+	 * A straight of 1 has to be open on both sides, longer ones can be open on either side or have one gap in them,
+	 * and a straight of 'connect' is a win. For connect 4:
+	 *   1: 010    2: 0110 011 101 110    3: 01110 0111 1011 1101 1110    4: 1111
+	 */
+	private static byte[][][] createStraights(int connect){
+		
+		byte[][][] straights = new byte[connect + 1][][];
+		straights[0] = new byte[0][];
+		for(int length = 1; length <= connect; length++){
+			if(length == connect){
+				straights[length] = new byte[][]{createStraight(0, length, -1, 0)};
+			} else if(length == 1){
+				straights[length] = new byte[][]{createStraight(1, 1, -1, 1)};
+			} else {
+				// Open on both sides, open on the left, a gap after each piece but the last, open on the right
+				straights[length] = new byte[length + 2][];
+				straights[length][0] = createStraight(1, length, -1, 1);
+				straights[length][1] = createStraight(1, length, -1, 0);
+				for(int gap = 1; gap < length; gap++){
+					straights[length][gap + 1] = createStraight(0, length, gap, 0);
 				}
-				
-				for(int z = 0; z < combos.size(); z++){
-					String comboString = combos.get(z);
-					
-					if(s.contains(comboString)){
-						count++;
-					}
+				straights[length][length + 1] = createStraight(0, length, -1, 1);
+			}
+		}
+		
+		return straights;
+	}
+	
+	/**
+	 * Return 'left' empty cells, 'pieces' pieces with an empty cell before piece number 'gap' (-1 for no gap), then 'right' empty cells
+	 */
+	private static byte[] createStraight(int left, int pieces, int gap, int right){
+		
+		byte[] straight = new byte[left + pieces + (gap == -1 ? 0 : 1) + right];
+		int i = left;
+		for(int p = 0; p < pieces; p++){
+			if(p == gap){
+				i++;
+			}
+			straight[i++] = 1;
+		}
+		
+		return straight;
+	}
+	
+	/**
+	 * Return how many of 'straights' appear somewhere in the first 'length' cells of 'line'
+	 */
+	private int countStraights(byte[][] straights, int length){
+		
+		int count = 0;
+		for(int z = 0; z < straights.length; z++){
+			byte[] straight = straights[z];
+			
+			for(int start = 0; start + straight.length <= length; start++){
+				int k = 0;
+				while(k < straight.length && line[start + k] == straight[k]){
+					k++;
 				}
 				
-				s = "";
+				if(k == straight.length){
+					count++;
+					break;
+				}
 			}
 		}
 		
 		return count;
 	}
 	
+	/**
+	 * Return the number of windows of connect (four) cells that hold exactly 'pieces' of symbol 'symbol' and no opponent pieces
+	 * These are the windows that can still become a Connect 4 for that symbol
+	 */
+	public int getNumWindows(String symbol, int pieces){
+		
+		if(pieces < 1 || pieces > connect) throw new Error("Invalid number of pieces");
+		
+		// A symbol that is not on the board has no pieces in any window
+		int side = findSide(symbol);
+		if(side == -1){
+			return 0;
+		}
+		
+		return getNumWindows(side, pieces);
+	}
+	
+	/**
+	 * Same as getNumWindows(symbol, pieces) for the pieces of side 'side' (0 or 1)
+	 * O(1), the counts are kept up to date by addPiece/removeSymbol
+	 */
+	public int getNumWindows(int side, int pieces){
+		
+		if(pieces < 1 || pieces > connect) throw new Error("Invalid number of pieces");
+		return windowCounts[side][pieces];
+	}
+	
+	/**
+	 * Return the winning lines of this board, see LineTable
+	 */
+	public LineTable getLineTable(){
+		return lines;
+	}
+	
+	/**
+	 * Return the number of pieces of side 'side' (0 or 1) in line 'line' of getLineTable()
+	 */
+	public int getLineCount(int side, int line){
+		return lineCounts[side][line];
+	}
+	
 	/**
 	 * Return a row's contents as a string
 	 */
@@ -385,6 +596,185 @@ public class Board {
 		return s;
 	}
 	
+	/**
+	 * Return the Zobrist key of the position, kept up to date by addSymbol/removeSymbol.
+	 * Equal positions have equal keys no matter what order the moves were played in
+	 */
+	public long getKey(){
+		return key;
+	}
+	
+	/**
+	 * Return the Zobrist key of this position flipped left to right, kept up to date by addSymbol/removeSymbol
+	 */
+	public long getMirrorKey(){
+		return mirrorKey;
+	}
+	
+	/**
+	 * Return the smaller of getKey() and getMirrorKey()
+	 * A position and its mirror image have the same canonical key, so a cache keyed by it stores them once.
+	 * When isMirrored() is true, columns stored with the canonical key have to go through getMirrorColumn()
+	 */
+	public long getCanonicalKey(){
+		return Math.min(getKey(), getMirrorKey());
+	}
+	
+	/**
+	 * Return true if the canonical key is the key of the mirror image of this position
+	 */
+	public boolean isMirrored(){
+		return getMirrorKey() < getKey();
+	}
+	
+	/**
+	 * Return the column 'column' becomes when the board is flipped left to right
+	 */
+	public int getMirrorColumn(int column){
+		return columnSize - 1 - column;
+	}
+	
+	/**
+	 * Return the number of symbols ever added to this board, emptyBoard() does not reset it
+	 * The difference before and after a search is the number of positions it visited
+	 */
+	public long getNumAdded(){
+		return numAdded;
+	}
+	
+	/**
+	 * Return the table of random Zobrist keys for each side and each of 'cells' cells (column * rowSize + height)
+	 * The seed is fixed so a position has the same key on every board of the same size. The table is made once
+	 * per size and shared, it is never written to after it is made
+	 */
+	protected static long[][] getZobristKeys(int cells){
+		return zobristTables.computeIfAbsent(cells, Board::createZobristKeys);
+	}
+	
+	private static long[][] createZobristKeys(int cells){
+		
+		Random random = new Random(4511);
+		long[][] keys = new long[2][cells];
+		for(int i = 0; i < 2; i++){
+			for(int j = 0; j < cells; j++){
+				keys[i][j] = random.nextLong();
+			}
+		}
+		
+		return keys;
+	}
+	
+	/**
+	 * Return a new board of the same type and size with the same pieces, sides and keys as this one
+	 * Much cheaper than replaying the moves, and the copy can be searched on another thread while this board is left alone
+	 */
+	public Board copy(){
+		
+		Board copy = newEmptyBoard();
+		copyInto(copy);
+		return copy;
+	}
+	
+	/**
+	 * Make 'target' the same position as this board without allocating anything
+	 * 'target' must be a board of the same type and size, see canCopyInto(). Its getNumAdded() count is kept
+	 */
+	public void copyInto(Board target){
+		
+		if(!canCopyInto(target)) throw new Error("Can only copy into a board of the same type and size");
+		
+		if(cells != null){
+			for(int i = 0; i < rowSize; i++){
+				System.arraycopy(cells[i], 0, target.cells[i], 0, columnSize);
+			}
+		}
+		System.arraycopy(heights, 0, target.heights, 0, columnSize);
+		
+		target.symbols[0] = symbols[0];
+		target.symbols[1] = symbols[1];
+		target.key = key;
+		target.mirrorKey = mirrorKey;
+		
+		for(int i = 0; i < 2; i++){
+			System.arraycopy(lineCounts[i], 0, target.lineCounts[i], 0, lineCounts[i].length);
+			System.arraycopy(windowCounts[i], 0, target.windowCounts[i], 0, windowCounts[i].length);
+		}
+	}
+	
+	/**
+	 * Return true if 'target' is a board of the same type, size and connect length as this one
+	 */
+	public boolean canCopyInto(Board target){
+		return target.getClass() == getClass() && target.rowSize == rowSize && target.columnSize == columnSize && target.connect == connect;
+	}
+	
+	/**
+	 * Return a new empty board of the same type and size as this one, boards that extend Board make one of their own type
+	 */
+	protected Board newEmptyBoard(){
+		return new Board(rowSize, columnSize, connect);
+	}
+	
+	/**
+	 * Return the side (0 or 1) of a symbol, the first two symbols played on the board get sides 0 and 1
+	 * A symbol that has not been played yet gets the next free side, so look up the player to move first
+	 */
+	public int getSide(String symbol){
+		
+		int side = findSide(symbol);
+		if(side != -1){
+			return side;
+		}
+		
+		if(symbols[0] == null){
+			symbols[0] = symbol;
+			return 0;
+		}
+		
+		if(symbols[1] == null){
+			symbols[1] = symbol;
+			return 1;
+		}
+		
+		throw new Error("A Board can only hold two different symbols");
+	}
+	
+	/**
+	 * Return the side (0 or 1) of a symbol already played on the board, for functions that only read the board
+	 * Unlike getSide() a symbol is never given a side here, a symbol that has not been played is an error
+	 */
+	public int getPlayedSide(String symbol){
+		
+		int side = findSide(symbol);
+		if(side == -1) throw new Error("Symbol " + symbol + " has not been played on this board");
+		
+		return side;
+	}
+	
+	/**
+	 * Return the side (0 or 1) of a symbol already played on the board
+	 * Otherwise return -1
+	 */
+	public int findSide(String symbol){
+		
+		if(symbol.equals(symbols[0])){
+			return 0;
+		}
+		
+		if(symbol.equals(symbols[1])){
+			return 1;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Return the symbol played by side 0 or 1, or null if that side has not played yet
+	 */
+	public String getSideSymbol(int side){
+		return symbols[side];
+	}
+	
 	/**
 	 * Return row size
 	 */
@@ -400,16 +790,55 @@ public class Board {
 	}
 	
 	/**
-	 * Return board
+	 * Return the number of pieces in a row needed to win, 4 for Connect 4
+	 */
+	public int getConnectLength(){
+		return connect;
+	}
+	
+	/**
+	 * Return the fastest board for 'rowSize' rows, 'columnSize' columns and connect length 'connect':
+	 * a BitBoard when the board fits in one long, a WideBitBoard when each column fits in one, otherwise a Board
+	 */
+	public static Board create(int rowSize, int columnSize, int connect){
+		
+		if((rowSize + 1) * columnSize <= 64){
+			return new BitBoard(rowSize, columnSize, connect);
+		}
+		
+		if(rowSize <= 64){
+			return new WideBitBoard(rowSize, columnSize, connect);
+		}
+		
+		return new Board(rowSize, columnSize, connect);
+	}
+	
+	/**
+	 * Return board symbols as a grid. This is a copy, the pieces are stored by side
 	 */
 	public String[][] getBoard(){
-		return board;
+		
+		String[][] grid = new String[rowSize][columnSize];
+		for(int i = 0; i < rowSize; i++){
+			for(int j = 0; j < columnSize; j++){
+				grid[i][j] = getPosition(i, j);
+			}
+		}
+		
+		return grid;
 	}
 	
 	/**
-	 * Return column heights
+	 * Return column heights. This is a copy, changing it does not change the board
 	 */
 	public int[] getHeights(){
+		return heights.clone();
+	}
+	
+	/**
+	 * Return the column heights of this board itself, for boards that extend Board and keep them up to date
+	 */
+	protected int[] getHeightArray(){
 		return heights;
 	}
 	
@@ -422,7 +851,7 @@ public class Board {
 		// Add board symbols
 		for(int i = 0; i < rowSize; i++){
 			for(int j = 0; j < columnSize; j++){
-				s += board[i][j] + " ";
+				s += getPosition(i, j) + " ";
 			}
 			s += '\n';
 		}
@@ -0,0 +1,47 @@
+import java.util.ArrayList;
+
+/**
+ * Private boards for search workers and parallel games, so no Board is ever mutated by two threads at once
+ *
+ * Every thread keeps its own few free boards. acquire() copies a position into one of them with Board.copyInto(),
+ * which allocates nothing once the thread has a board of that type and size, and release() gives it back.
+ * A board must be released on the thread that acquired it and not used after that
+ * @author Avery Swank
+ */
+public class BoardPool {
+
+	// Free boards kept per thread, more than a search or game holds at once
+	private static final int MAX_FREE = 8;
+
+	private static final ThreadLocal<ArrayList<Board>> free = ThreadLocal.withInitial(() -> new ArrayList<Board>());
+
+	/**
+	 * Return a board of this thread with the same type, size and position as 'source'
+	 * 'source' is only read, so many threads can acquire copies of the same board at once as long as nobody changes it
+	 */
+	public static Board acquire(Board source){
+
+		ArrayList<Board> boards = free.get();
+		for(int i = boards.size() - 1; i >= 0; i--){
+			Board board = boards.get(i);
+			if(source.canCopyInto(board)){
+				boards.remove(i);
+				source.copyInto(board);
+				return board;
+			}
+		}
+
+		return source.copy();
+	}
+
+	/**
+	 * Give back a board from acquire() so this thread can use it again
+	 */
+	public static void release(Board board){
+
+		ArrayList<Board> boards = free.get();
+		if(boards.size() < MAX_FREE){
+			boards.add(board);
+		}
+	}
+}
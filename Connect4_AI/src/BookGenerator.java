@@ -0,0 +1,197 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Makes an OpeningBook: searches every position up to a given ply and writes the best move of each one
+ *
+ * Positions reached through different move orders, and mirror images of positions already found, are only searched
+ * once. Each position is searched with alpha-beta to a fixed depth, or solved exactly with the Solver, on a pool of
+ * threads. Usage:
+ *   java BookGenerator [ply] [file] [-depth N] [-solve] [-threads N]
+ *     ply          pieces on the board of the deepest positions in the book, default 6
+ *     file         book to write, default opening.book
+ *     -depth N     plies of alpha-beta search per position, default 12
+ *     -solve       solve every position instead, exact but slow for the first few plies
+ *     -threads N   threads to search on, default the number of cores
+ * @author Avery Swank
+ */
+public class BookGenerator {
+
+	// Positions handed to a thread at a time, each chunk gets its own transposition table
+	private static final int CHUNK_SIZE = 64;
+
+	private static final Player X = new Player("Book X", "x", "book");
+	private static final Player O = new Player("Book O", "o", "book");
+
+	private int rowSize;
+	private int columnSize;
+	private int depth;
+	private boolean solve;
+
+	// Every position in the book as the columns played to reach it, and the search result of each one
+	private ArrayList<String> positions;
+	private long[] keys;
+	private int[] scores;
+	private int[] columns;
+	private int[] depths;
+
+	public BookGenerator(int _rowSize, int _columnSize, int _depth, boolean _solve){
+		rowSize = _rowSize;
+		columnSize = _columnSize;
+		depth = _depth;
+		solve = _solve;
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		int ply = 6;
+		String file = OpeningBook.DEFAULT_FILE;
+		int depth = 12;
+		boolean solve = false;
+		int threads = Runtime.getRuntime().availableProcessors();
+
+		int arg = 0;
+		for(int i = 0; i < args.length; i++){
+			if(args[i].equals("-depth")){
+				depth = Integer.parseInt(args[++i]);
+			} else if(args[i].equals("-solve")){
+				solve = true;
+			} else if(args[i].equals("-threads")){
+				threads = Integer.parseInt(args[++i]);
+			} else if(arg++ == 0){
+				ply = Integer.parseInt(args[i]);
+			} else {
+				file = args[i];
+			}
+		}
+
+		BookGenerator generator = new BookGenerator(6, 7, depth, solve);
+		long start = System.nanoTime();
+
+		int count = generator.findPositions(ply);
+		System.out.println("Positions: " + count);
+
+		generator.searchPositions(threads);
+		generator.write(file, ply);
+
+		System.out.println("Wrote " + file + " in " + String.format("%.1f", (System.nanoTime() - start) / 1e9) + "s");
+	}
+
+	/**
+	 * Find every position with up to 'ply' pieces that is not already over and return how many there are
+	 */
+	public int findPositions(int ply){
+
+		positions = new ArrayList<String>();
+		walk(new BitBoard(rowSize, columnSize), ply, "", new HashSet<Long>());
+		return positions.size();
+	}
+
+	private void walk(Board board, int ply, String moves, HashSet<Long> seen){
+
+		if(!seen.add(board.getCanonicalKey())){
+			return;
+		}
+		positions.add(moves);
+
+		if(board.getNumMoves() == ply){
+			return;
+		}
+
+		int[] available = board.getAvailableColumns();
+		String symbol = (board.getNumMoves() % 2 == 0) ? X.getSymbol() : O.getSymbol();
+		for(int i = 0; i < available.length; i++){
+			int col = available[i];
+
+			board.addSymbol(col, symbol);
+			if(!board.hasWonAfter(col) && !board.isBoardFull()){
+				walk(board, ply, moves + col, seen);
+			}
+			board.removeSymbol(col);
+		}
+	}
+
+	/**
+	 * Search every position found by findPositions() on 'threads' threads
+	 */
+	public void searchPositions(int threads){
+
+		int count = positions.size();
+		keys = new long[count];
+		scores = new int[count];
+		columns = new int[count];
+		depths = new int[count];
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		ArrayList<Future<?>> futures = new ArrayList<Future<?>>();
+
+		try{
+			for(int start = 0; start < count; start += CHUNK_SIZE){
+				int from = start;
+				int to = Math.min(count, start + CHUNK_SIZE);
+				futures.add(pool.submit(() -> searchChunk(from, to)));
+			}
+
+			for(int i = 0; i < futures.size(); i++){
+				futures.get(i).get();
+				if((i + 1) % Math.max(1, futures.size() / 10) == 0){
+					System.out.println("Searched " + Math.min(count, (i + 1) * CHUNK_SIZE) + " / " + count);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new Error("Book generation interrupted");
+		} catch (ExecutionException e) {
+			throw new Error("Error generating book", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Search positions 'from' to 'to' on one board, one transposition table is shared by the whole chunk
+	 */
+	private void searchChunk(int from, int to){
+
+		TransTable table = new TransTable(solve ? Solver.DEFAULT_SIZE_MB : TransTable.DEFAULT_SIZE_MB);
+		AlphaBeta search = new AlphaBeta(table);
+		Solver solver = solve ? new Solver(rowSize, columnSize, table) : null;
+		Board board = new BitBoard(rowSize, columnSize);
+
+		for(int i = from; i < to; i++){
+			String moves = positions.get(i);
+
+			board.emptyBoard();
+			for(int m = 0; m < moves.length(); m++){
+				board.addSymbol(moves.charAt(m) - '0', (m % 2 == 0) ? X.getSymbol() : O.getSymbol());
+			}
+
+			// X moves first so it is side 0, the side to move is passed since it may not have played yet
+			int side = moves.length() % 2;
+			SearchResult result;
+			if(solve){
+				result = solver.bestMove(board, side);
+			} else {
+				result = search.search(board, side, depth);
+			}
+
+			keys[i] = board.getCanonicalKey();
+			scores[i] = result.getScore();
+			columns[i] = board.isMirrored() ? board.getMirrorColumn(result.getColumn()) : result.getColumn();
+			depths[i] = result.getDepth();
+		}
+	}
+
+	/**
+	 * Write the searched positions to 'file' as a book of positions with up to 'ply' pieces
+	 */
+	public void write(String file, int ply) throws IOException {
+		OpeningBook.write(Paths.get(file), rowSize, columnSize, ply, positions.size(), keys, scores, columns, depths);
+	}
+}
@@ -9,6 +9,21 @@ public class Game {
 	private Player p1;
 	private Player p2;
 	
+	// Made once per Player so the strategies keep their caches for every game this Game plays
+	private Strategy p1Strategy;
+	private Strategy p2Strategy;
+	private SearchLimits p1Limits;
+	private SearchLimits p2Limits;
+	
+	// Search work of every move each player made in this game and the games before it
+	private SearchStats p1Stats;
+	private SearchStats p2Stats;
+	
+	// Columns played in the last game and its winner, see getRecord()
+	private byte[] moves;
+	private int numMoves;
+	private Player winner;
+	
 	public Game(Board _board, Player _p1, Player _p2){
 		
 		if(_p1.getSymbol().equals(_p2.getSymbol())) throw new Error("Both Players cannot have the same symbol");
@@ -16,6 +31,13 @@ public class Game {
 		board = _board;
 		p1 = _p1;
 		p2 = _p2;
+		p1Strategy = StrategyRegistry.create(_p1);
+		p2Strategy = StrategyRegistry.create(_p2);
+		p1Limits = StrategyRegistry.getLimits(_p1);
+		p2Limits = StrategyRegistry.getLimits(_p2);
+		p1Stats = new SearchStats();
+		p2Stats = new SearchStats();
+		moves = new byte[_board.getRowSize() * _board.getColumnSize()];
 	}
 	
 	/**
@@ -27,6 +49,8 @@ public class Game {
 		
 		Player currPlayer;
 		Player currOpponent;
+		numMoves = 0;
+		winner = null;
 		
 		int i = 0;
 		while(!board.isBoardFull()){
@@ -44,12 +68,12 @@ public class Game {
 				
 			// Make currPlayer's move
 			board.addSymbol(col, currPlayer.getSymbol());
+			moves[numMoves++] = (byte) col;
 				
-			// Check if there is winner
-			String win = board.getConnect4(p1, p2);
-			Player winner = getWinner(win);
-			if(winner != null){
-				return winner;
+			// Check if currPlayer's move made a Connect 4
+			if(board.hasWonAfter(col)){
+				winner = currPlayer;
+				return currPlayer;
 			}
 		}
 		
@@ -57,53 +81,45 @@ public class Game {
 	}
 	
 	/**
-	 * Play a move based on which type of Player is playing
+	 * Play a move with the Strategy of 'player's type, found in the StrategyRegistry
 	 */
 	public int move(Player player, Player opponent){
 		
-		int col = -1;
+		long start = System.nanoTime();
+		long added = board.getNumAdded();
 		
-		switch(player.getType()){
-			case "human":
-				col = Search.humanMove(board, player);
-				break;
-			case "random":
-				col = Search.random(board);
-				break;
-			case "naive":
-				col = Search.naive(board, player, opponent);
-				break;
-			case "simple":
-				col = Search.simple(board, player, opponent);
-				break;
-			case "heuristic":
-				col = Search.nextBestMove(board, player, opponent);
-				break;
-			case "minimax":
-				col = Search.minimax(board, player, opponent);
-				break;
-			default:
-				throw new Error("Invalid Player Type");
+		Strategy strategy = (player == p1) ? p1Strategy : p2Strategy;
+		SearchLimits limits = (player == p1) ? p1Limits : p2Limits;
+		int col = strategy.chooseMove(board, board.getSide(player.getSymbol()), limits);
+		
+		// Strategies that search count their own work
+		// For the others, every symbol they added to the board is a position they looked at
+		SearchStats stats = strategy.getLastStats();
+		if(stats == null){
+			stats = new SearchStats(1, board.getNumAdded() - added, 0, 0, 0, 0, System.nanoTime() - start);
 		}
+		getStats(player).add(stats);
 		
 		return col;
 	}
 	
 	/**
-	 * Return the Player cooresponding to the winning symbol
-	 * Otherwise, return null
+	 * Return the search stats of every move 'player' has made in this game and the games before it
 	 */
-	private Player getWinner(String winningSymbol){
-
-		if(winningSymbol.equals(p1.getSymbol())){
-			return p1;
-		}
+	public SearchStats getStats(Player player){
+		return (player == p1) ? p1Stats : p2Stats;
+	}
+	
+	/**
+	 * Return the last game played as a GameRecord, with the columns played and the result
+	 */
+	public GameRecord getRecord(){
 		
-		if(winningSymbol.equals(p2.getSymbol())){
-			return p2;
-		}
+		byte result = (winner == null) ? GameRecord.TIE : (winner == p1) ? GameRecord.FIRST_WON : GameRecord.SECOND_WON;
+		byte[] played = new byte[numMoves];
+		System.arraycopy(moves, 0, played, 0, numMoves);
 		
-		return null;
+		return new GameRecord(board.getRowSize(), board.getColumnSize(), board.getConnectLength(), p1.getType(), p2.getType(), result, played);
 	}
 	
 	/**
@@ -0,0 +1,183 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Append-only binary log of GameRecords, for keeping millions of games on disk
+ *
+ * A log is a header (magic number and version) followed by records back to back, see GameRecord. Records are
+ * copied into a buffer and only written to the FileChannel when it is full, so append() is a short copy under a lock
+ * and any number of threads can append to one log, ie every game of a Tournament. Opening an existing log adds to the end.
+ * Print a log as text, one game per line, with:
+ *   java GameLog games.log
+ * @author Avery Swank
+ */
+public class GameLog {
+
+	private static final int MAGIC = 0x4334474C;
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 8;
+
+	private static final int BUFFER_BYTES = 1 << 16;
+
+	private FileChannel channel;
+	private ByteBuffer buffer;
+	private long numRecords;
+
+	public GameLog(Path path) throws IOException {
+
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+		buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+		try{
+			if(channel.size() == 0){
+				buffer.putInt(MAGIC);
+				buffer.putInt(VERSION);
+			} else {
+				checkHeader(channel, path);
+			}
+			channel.position(channel.size());
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		if(args.length < 1){
+			System.out.println("Usage: java GameLog <file>");
+			return;
+		}
+
+		long[] results = new long[3];
+		read(Paths.get(args[0]), record -> {
+			System.out.println(record);
+			results[record.getResult()]++;
+		});
+		System.out.println("Games: " + (results[0] + results[1] + results[2]) + ", first player won " + results[GameRecord.FIRST_WON]
+							+ ", second player won " + results[GameRecord.SECOND_WON] + ", ties " + results[GameRecord.TIE]);
+	}
+
+	/**
+	 * Add a game to the end of the log. Safe to call from any thread
+	 */
+	public synchronized void append(GameRecord record){
+
+		try{
+			int bytes = record.getNumBytes();
+			if(buffer.remaining() < bytes){
+				writeBuffer();
+			}
+
+			// A record bigger than the whole buffer is written on its own
+			if(buffer.remaining() < bytes){
+				ByteBuffer single = ByteBuffer.allocate(bytes);
+				record.write(single);
+				single.flip();
+				while(single.hasRemaining()){
+					channel.write(single);
+				}
+			} else {
+				record.write(buffer);
+			}
+			numRecords++;
+		} catch (IOException e) {
+			throw new Error("Could not write game log", e);
+		}
+	}
+
+	/**
+	 * Write every game appended so far to the file
+	 */
+	public synchronized void flush() throws IOException {
+		writeBuffer();
+		channel.force(false);
+	}
+
+	/**
+	 * Write every game appended so far and close the file
+	 */
+	public synchronized void close() throws IOException {
+
+		if(!channel.isOpen()){
+			return;
+		}
+
+		try{
+			writeBuffer();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Return the number of games appended since the log was opened
+	 */
+	public synchronized long getNumRecords(){
+		return numRecords;
+	}
+
+	private void writeBuffer() throws IOException {
+
+		buffer.flip();
+		while(buffer.hasRemaining()){
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Pass every game of the log at 'path' to 'consumer' in the order they were appended, reading a buffer at a time
+	 */
+	public static void read(Path path, Consumer<GameRecord> consumer) throws IOException {
+
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+			checkHeader(channel, path);
+			channel.position(HEADER_BYTES);
+
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+			buffer.flip();
+			boolean end = false;
+			while(true){
+				int bytes = GameRecord.peekNumBytes(buffer);
+				if(bytes != -1 && buffer.remaining() >= bytes){
+					consumer.accept(GameRecord.read(buffer));
+					continue;
+				}
+
+				if(end){
+					if(buffer.hasRemaining()) throw new IOException("Game log is truncated: " + path);
+					return;
+				}
+
+				// Keep the start of the next record and read more after it, making room for records bigger than the buffer
+				buffer.compact();
+				if(bytes > buffer.capacity()){
+					buffer.flip();
+					buffer = ByteBuffer.allocate(bytes).put(buffer);
+				}
+				end = channel.read(buffer) == -1;
+				buffer.flip();
+			}
+		}
+	}
+
+	private static void checkHeader(FileChannel channel, Path path) throws IOException {
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		while(header.hasRemaining()){
+			if(channel.read(header, header.position()) == -1){
+				break;
+			}
+		}
+		header.flip();
+
+		if(header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) throw new IOException("Not a game log: " + path);
+		if(header.getInt() != VERSION) throw new IOException("Unsupported game log version: " + path);
+	}
+}
@@ -0,0 +1,203 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One finished game: the board size, both Player types, the result and every column played in order
+ *
+ * In a GameLog a record is a few bytes of metadata followed by one byte per move:
+ *   byte   rows, columns, connect length
+ *   byte   result, TIE, FIRST_WON or SECOND_WON
+ *   short  number of moves
+ *   byte   length of the first Player's type, then the type in UTF-8, the same for the second Player
+ *   byte   column of every move, starting with the first Player
+ * The text form is one line, ie "6x7x4 alphabeta:8 random 1-0 3323...", with the columns as digits on boards
+ * of up to 10 columns and separated by spaces on wider ones
+ * @author Avery Swank
+ */
+public class GameRecord {
+
+	public static final byte TIE = 0;
+	public static final byte FIRST_WON = 1;
+	public static final byte SECOND_WON = 2;
+
+	// Bytes of a record before the Player types and the moves
+	public static final int FIXED_BYTES = 6;
+
+	private int rowSize;
+	private int columnSize;
+	private int connect;
+	private String p1Type;
+	private String p2Type;
+	private byte result;
+	private byte[] moves;
+
+	public GameRecord(int _rowSize, int _columnSize, int _connect, String _p1Type, String _p2Type, byte _result, byte[] _moves){
+
+		// The column size and the moves are read back as unsigned bytes, the rest as signed ones
+		if(_rowSize > Byte.MAX_VALUE || _columnSize > 0xFF || _connect > Byte.MAX_VALUE) throw new Error("Board is too large for a GameRecord");
+		if(_result < TIE || _result > SECOND_WON) throw new Error("Invalid result");
+		if(_moves.length > Short.MAX_VALUE) throw new Error("Too many moves for a GameRecord");
+		if(typeBytes(_p1Type).length > Byte.MAX_VALUE || typeBytes(_p2Type).length > Byte.MAX_VALUE) throw new Error("Player type is too long");
+
+		rowSize = _rowSize;
+		columnSize = _columnSize;
+		connect = _connect;
+		p1Type = _p1Type;
+		p2Type = _p2Type;
+		result = _result;
+		moves = _moves;
+	}
+
+	/**
+	 * Return the number of bytes this record takes in a GameLog
+	 */
+	public int getNumBytes(){
+		return FIXED_BYTES + 1 + typeBytes(p1Type).length + 1 + typeBytes(p2Type).length + moves.length;
+	}
+
+	/**
+	 * Write this record at the position of 'buffer', which needs getNumBytes() bytes of room
+	 */
+	public void write(ByteBuffer buffer){
+
+		byte[] type1 = typeBytes(p1Type);
+		byte[] type2 = typeBytes(p2Type);
+
+		buffer.put((byte) rowSize);
+		buffer.put((byte) columnSize);
+		buffer.put((byte) connect);
+		buffer.put(result);
+		buffer.putShort((short) moves.length);
+		buffer.put((byte) type1.length);
+		buffer.put(type1);
+		buffer.put((byte) type2.length);
+		buffer.put(type2);
+		buffer.put(moves);
+	}
+
+	/**
+	 * Return the number of bytes of the record starting at the position of 'buffer', without reading it
+	 * Return -1 if there are not enough bytes left in 'buffer' to tell
+	 */
+	public static int peekNumBytes(ByteBuffer buffer){
+
+		int start = buffer.position();
+		if(buffer.remaining() < FIXED_BYTES + 1){
+			return -1;
+		}
+
+		int numMoves = buffer.getShort(start + 4);
+		int type1 = buffer.get(start + FIXED_BYTES);
+		if(buffer.remaining() < FIXED_BYTES + 1 + type1 + 1){
+			return -1;
+		}
+
+		int type2 = buffer.get(start + FIXED_BYTES + 1 + type1);
+		return FIXED_BYTES + 1 + type1 + 1 + type2 + numMoves;
+	}
+
+	/**
+	 * Read the record at the position of 'buffer', which has to hold all of it
+	 */
+	public static GameRecord read(ByteBuffer buffer){
+
+		int rows = buffer.get();
+		int columns = buffer.get() & 0xFF;
+		int connect = buffer.get();
+		byte result = buffer.get();
+		int numMoves = buffer.getShort();
+
+		byte[] type1 = new byte[buffer.get()];
+		buffer.get(type1);
+		byte[] type2 = new byte[buffer.get()];
+		buffer.get(type2);
+		byte[] moves = new byte[numMoves];
+		buffer.get(moves);
+
+		return new GameRecord(rows, columns, connect, new String(type1, StandardCharsets.UTF_8), new String(type2, StandardCharsets.UTF_8), result, moves);
+	}
+
+	private static byte[] typeBytes(String type){
+		return type.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Return the columns played, starting with the first Player. This is a copy
+	 */
+	public byte[] getMoves(){
+		return moves.clone();
+	}
+
+	/**
+	 * Return the number of moves played
+	 */
+	public int getNumMoves(){
+		return moves.length;
+	}
+
+	/**
+	 * Return TIE, FIRST_WON or SECOND_WON
+	 */
+	public byte getResult(){
+		return result;
+	}
+
+	/**
+	 * Return the type of the Player that moved first
+	 */
+	public String getPlayer1Type(){
+		return p1Type;
+	}
+
+	/**
+	 * Return the type of the Player that moved second
+	 */
+	public String getPlayer2Type(){
+		return p2Type;
+	}
+
+	/**
+	 * Return row size
+	 */
+	public int getRowSize(){
+		return rowSize;
+	}
+
+	/**
+	 * Return column size
+	 */
+	public int getColumnSize(){
+		return columnSize;
+	}
+
+	/**
+	 * Return the number of pieces in a row needed to win
+	 */
+	public int getConnectLength(){
+		return connect;
+	}
+
+	/**
+	 * Return the columns played as text, digits on boards of up to 10 columns and separated by spaces on wider ones
+	 */
+	public String getMovesText(){
+
+		StringBuilder s = new StringBuilder(moves.length * 2);
+		for(int i = 0; i < moves.length; i++){
+			if(columnSize > 10 && i > 0){
+				s.append(' ');
+			}
+			s.append(moves[i] & 0xFF);
+		}
+		return s.toString();
+	}
+
+	/**
+	 * Return the record as one line of text, see the class comment
+	 */
+	public String toString(){
+
+		String score = (result == FIRST_WON) ? "1-0" : (result == SECOND_WON) ? "0-1" : "1/2";
+		return rowSize + "x" + columnSize + "x" + connect + " " + p1Type + " " + p2Type + " " + score + " " + getMovesText();
+	}
+}
@@ -0,0 +1,272 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Tunes the weights of Search.getHeuristic() or Search.getSimpleHeuristic() by self-play with SPSA
+ * (simultaneous perturbation stochastic approximation)
+ *
+ * Every iteration moves all the weights at once by +c or -c each, picked at random, plays the two variants against
+ * each other in a Tournament on every core, and steps the weights towards the variant that scored better.
+ * Both variants are registered as Player types with StrategyRegistry.register() for that iteration: alpha-beta searches
+ * a few plies deep for the line weights, or Search.minimax() for the simple weights. The first few plies of every game
+ * are random so the games are not all the same. Tuning starts from the weights loaded at startup, and the weights file
+ * is written with the tuned set and the other set as it was loaded. Usage:
+ *   java HeuristicTuner [iterations] [file] [-simple] [-games N] [-depth N] [-random N] [-threads N] [-seed N]
+ *                       [-rows N] [-columns N] [-connect N]
+ *     iterations   SPSA iterations, default 100
+ *     file         weights file to write, default heuristic.weights
+ *     -simple      tune the weights of getSimpleHeuristic() instead of getHeuristic()
+ *     -games N     games per iteration, half with each variant moving first, default 2000
+ *     -depth N     plies of alpha-beta search per move, default 4, minimax always searches its own depth
+ *     -random N    random plies at the start of every game, default 4
+ *     -threads N   threads to play on, default the number of cores
+ *     -seed N      seed of the perturbations, default 1
+ *     -rows N      rows of the board the games are played on, default 6
+ *     -columns N   columns of the board, default 7
+ *     -connect N   pieces in a row to win, default 4
+ * @author Avery Swank
+ */
+public class HeuristicTuner {
+
+	// Gains of iteration k: step a / (k + 1 + STABILITY)^ALPHA and perturbation c / (k + 1)^GAMMA, the usual SPSA exponents
+	private static final double STEP = 20.0;
+	private static final double PERTURBATION = 2.0;
+	private static final double ALPHA = 0.602;
+	private static final double GAMMA = 0.101;
+
+	private static final int MAX_WEIGHT = 1000;
+
+	// Player types registered for the two variants of the current iteration
+	private static final String PLUS_TYPE = "tuner-plus";
+	private static final String MINUS_TYPE = "tuner-minus";
+
+	// Weights tuning starts from, the set that is not tuned is kept as it is
+	private HeuristicWeights start;
+	private boolean simple;
+
+	private int rowSize;
+	private int columnSize;
+	private int connect;
+	private int depth;
+	private int randomPlies;
+	private int threads;
+	private Random random;
+
+	// Weights being tuned, rounded to whole numbers when they are played: w4 to w1, or simple w3 and w2
+	private double[] theta;
+
+	public HeuristicTuner(HeuristicWeights _start, boolean _simple, int _rowSize, int _columnSize, int _connect,
+						  int _depth, int _randomPlies, int _threads, long _seed){
+
+		if(_depth < 1) throw new Error("Invalid search depth");
+
+		start = _start;
+		simple = _simple;
+		rowSize = _rowSize;
+		columnSize = _columnSize;
+		connect = _connect;
+		depth = _depth;
+		randomPlies = _randomPlies;
+		threads = _threads;
+		random = new Random(_seed);
+
+		if(_simple){
+			theta = new double[]{_start.getSimpleWeight(1), _start.getSimpleWeight(2)};
+		} else {
+			int[] weights = _start.getLineWeights();
+			theta = new double[weights.length];
+			for(int i = 0; i < weights.length; i++){
+				theta[i] = weights[i];
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		int iterations = 100;
+		String file = HeuristicWeights.DEFAULT_FILE;
+		int games = 2000;
+		int depth = 4;
+		int randomPlies = 4;
+		int threads = Runtime.getRuntime().availableProcessors();
+		long seed = 1;
+		boolean simple = false;
+		int rowSize = 6;
+		int columnSize = 7;
+		int connect = 4;
+
+		int arg = 0;
+		for(int i = 0; i < args.length; i++){
+			if(args[i].equals("-simple")){
+				simple = true;
+			} else if(args[i].equals("-games")){
+				games = Integer.parseInt(args[++i]);
+			} else if(args[i].equals("-depth")){
+				depth = Integer.parseInt(args[++i]);
+			} else if(args[i].equals("-random")){
+				randomPlies = Integer.parseInt(args[++i]);
+			} else if(args[i].equals("-threads")){
+				threads = Integer.parseInt(args[++i]);
+			} else if(args[i].equals("-seed")){
+				seed = Long.parseLong(args[++i]);
+			} else if(args[i].equals("-rows")){
+				rowSize = Integer.parseInt(args[++i]);
+			} else if(args[i].equals("-columns")){
+				columnSize = Integer.parseInt(args[++i]);
+			} else if(args[i].equals("-connect")){
+				connect = Integer.parseInt(args[++i]);
+			} else if(arg++ == 0){
+				iterations = Integer.parseInt(args[i]);
+			} else {
+				file = args[i];
+			}
+		}
+
+		HeuristicWeights loaded = HeuristicWeights.getDefault();
+		HeuristicTuner tuner = new HeuristicTuner(loaded, simple, rowSize, columnSize, connect, depth, randomPlies, threads, seed);
+		long start = System.nanoTime();
+
+		for(int k = 0; k < iterations; k++){
+			double score = tuner.iterate(k, iterations, games);
+			System.out.println(String.format("Iteration %d: score %+.3f weights %s", k + 1, score, tuner.getWeightsString()));
+		}
+
+		HeuristicWeights tuned = tuner.getWeights();
+		tuned.write(Paths.get(file));
+		System.out.println("Wrote " + file + " in " + (System.nanoTime() - start) / 1000000000 + "s:");
+		System.out.print(tuned);
+
+		// How much better the tuned weights are than the ones they started from
+		double score = tuner.play(tuned, loaded, games);
+		System.out.println(String.format("Tuned vs start: score %+.3f over %d games", score, games));
+	}
+
+	/**
+	 * Run SPSA iteration 'k' of 'iterations' with 'games' games, return the score of the plus variant
+	 */
+	public double iterate(int k, int iterations, int games){
+
+		double step = STEP / Math.pow(k + 1 + iterations / 10, ALPHA);
+		double perturbation = PERTURBATION / Math.pow(k + 1, GAMMA);
+
+		// Every weight moves at once, each one up or down at random
+		int[] delta = new int[theta.length];
+		double[] plus = new double[theta.length];
+		double[] minus = new double[theta.length];
+		for(int i = 0; i < theta.length; i++){
+			delta[i] = random.nextBoolean() ? 1 : -1;
+			plus[i] = theta[i] + perturbation * delta[i];
+			minus[i] = theta[i] - perturbation * delta[i];
+		}
+
+		double score = play(toWeights(plus), toWeights(minus), games);
+
+		// score is the difference between the scores of the two variants, step each weight towards the better one
+		for(int i = 0; i < theta.length; i++){
+			theta[i] += step * score / (2 * perturbation * delta[i]);
+			theta[i] = Math.max(0, Math.min(MAX_WEIGHT, theta[i]));
+		}
+
+		return score;
+	}
+
+	/**
+	 * Play 'games' games between two sets of weights, half with each one moving first, on a Tournament
+	 * Return (first wins - second wins) / games played, from -1 to 1
+	 */
+	public double play(HeuristicWeights first, HeuristicWeights second, int games){
+
+		// The games of one side of a match all score their leaves with the same weights, so they share one evaluator
+		BatchEvaluator firstEvaluator = newEvaluator(first);
+		BatchEvaluator secondEvaluator = newEvaluator(second);
+		StrategyRegistry.register(PLUS_TYPE, p -> createStrategy(first, firstEvaluator), p -> SearchLimits.NONE);
+		StrategyRegistry.register(MINUS_TYPE, p -> createStrategy(second, secondEvaluator), p -> SearchLimits.NONE);
+
+		Player plus = new Player("Tuner Plus", "+", PLUS_TYPE);
+		Player minus = new Player("Tuner Minus", "-", MINUS_TYPE);
+
+		Tournament tournament = new Tournament(rowSize, columnSize, connect, threads);
+		PairingStats plusFirst = tournament.addPairing(plus, minus, games / 2);
+		PairingStats minusFirst = tournament.addPairing(minus, plus, games - games / 2);
+		tournament.play();
+
+		int plusWins = plusFirst.getPlayer1Wins() + minusFirst.getPlayer2Wins();
+		int minusWins = plusFirst.getPlayer2Wins() + minusFirst.getPlayer1Wins();
+		return (double) (plusWins - minusWins) / (plusFirst.getGamesPlayed() + minusFirst.getGamesPlayed());
+	}
+
+	/**
+	 * Return the evaluator minimax scores the leaves with for 'weights', or null if it does not use one
+	 * Only the simple weights are tuned with minimax, and only boards that fit a BitBoard are scored in batches
+	 */
+	private BatchEvaluator newEvaluator(HeuristicWeights weights){
+
+		if(!simple || (rowSize + 1) * columnSize > 64){
+			return null;
+		}
+
+		return new BatchEvaluator(rowSize, columnSize, connect, weights.getSimpleWeights());
+	}
+
+	/**
+	 * Return a new Strategy that plays with 'weights', it plays random moves for the first few plies
+	 * An alpha-beta search for the line weights or minimax for the simple weights, with 'evaluator' made by newEvaluator(weights).
+	 * Each Game makes its own, so no search is shared between threads, the evaluator is only read and is shared
+	 */
+	private Strategy createStrategy(HeuristicWeights weights, BatchEvaluator evaluator){
+
+		if(simple){
+			return (board, side, limits) -> {
+				if(board.getNumMoves() < randomPlies){
+					return Search.random(board);
+				}
+				return Search.minimax(board, side, weights, evaluator);
+			};
+		}
+
+		AlphaBeta search = new AlphaBeta(null);
+		search.setWeights(weights);
+		return (board, side, limits) -> {
+			if(board.getNumMoves() < randomPlies){
+				return Search.random(board);
+			}
+			return search.search(board, side, depth).getColumn();
+		};
+	}
+
+	/**
+	 * Return the weights 'values' rounded to whole numbers as the tuned set, with the other set from the start weights
+	 */
+	private HeuristicWeights toWeights(double[] values){
+
+		int[] tuned = new int[values.length];
+		for(int i = 0; i < values.length; i++){
+			tuned[i] = (int) Math.round(values[i]);
+		}
+
+		if(simple){
+			return new HeuristicWeights(start.getLineWeights(), tuned);
+		}
+		return new HeuristicWeights(tuned, new int[]{start.getSimpleWeight(1), start.getSimpleWeight(2)});
+	}
+
+	/**
+	 * Return the tuned weights so far
+	 */
+	public HeuristicWeights getWeights(){
+		return toWeights(theta);
+	}
+
+	/**
+	 * Return the tuned weights so far before rounding
+	 */
+	public String getWeightsString(){
+
+		String s = "[";
+		for(int i = 0; i < theta.length; i++){
+			s += String.format("%.2f", theta[i]) + (i < theta.length - 1 ? " " : "");
+		}
+		return s + "]";
+	}
+}
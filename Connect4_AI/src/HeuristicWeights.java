@@ -0,0 +1,155 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * The weights of Search.getHeuristic() and Search.getSimpleHeuristic()
+ *
+ * Line weights score a winning line holding connect, connect - 1, connect - 2 and connect - 3 pieces of one side
+ * (w4, w3, w2 and w1 on a Connect 4 board), the simple weights are w3 and w2 of getSimpleHeuristic().
+ * The weights the players use are read once at startup from a file of "name=value" lines, ie made by HeuristicTuner:
+ *   w4=10
+ *   w3=5
+ *   w2=3
+ *   w1=1
+ *   simple.w3=5
+ *   simple.w2=3
+ * Weights missing from the file keep their default value
+ * @author Avery Swank
+ */
+public class HeuristicWeights {
+
+	public static final String DEFAULT_FILE = "heuristic.weights";
+	public static final String FILE_PROPERTY = "connect4.weights";
+
+	private static final String[] LINE_NAMES = {"w4", "w3", "w2", "w1"};
+	private static final String[] SIMPLE_NAMES = {"simple.w3", "simple.w2"};
+
+	public static final HeuristicWeights DEFAULT = new HeuristicWeights(new int[]{10, 5, 3, 1}, new int[]{5, 3});
+
+	private static HeuristicWeights defaultWeights;
+
+	private int[] lineWeights;
+	private int[] simpleWeights;
+
+	public HeuristicWeights(int[] _lineWeights, int[] _simpleWeights){
+
+		if(_lineWeights.length != LINE_NAMES.length) throw new Error("Invalid number of line weights");
+		if(_simpleWeights.length != SIMPLE_NAMES.length) throw new Error("Invalid number of simple weights");
+
+		lineWeights = _lineWeights.clone();
+		simpleWeights = _simpleWeights.clone();
+	}
+
+	/**
+	 * Return the weights named by the connect4.weights system property, or heuristic.weights in the working directory
+	 * Return DEFAULT if there is no file, or the property is set to an empty string
+	 */
+	public static synchronized HeuristicWeights getDefault(){
+
+		if(defaultWeights != null){
+			return defaultWeights;
+		}
+		defaultWeights = DEFAULT;
+
+		String file = System.getProperty(FILE_PROPERTY, DEFAULT_FILE);
+		if(file.isEmpty() || !Files.exists(Paths.get(file))){
+			return defaultWeights;
+		}
+
+		try{
+			defaultWeights = read(Paths.get(file));
+		} catch (IOException e) {
+			System.out.println("Could not read heuristic weights: " + e.getMessage());
+		}
+		return defaultWeights;
+	}
+
+	/**
+	 * Return the weights of the file at 'path', see the class comment for the format
+	 */
+	public static HeuristicWeights read(Path path) throws IOException {
+
+		Properties properties = new Properties();
+		try(Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)){
+			properties.load(reader);
+		}
+
+		try{
+			int[] line = new int[LINE_NAMES.length];
+			for(int i = 0; i < line.length; i++){
+				line[i] = Integer.parseInt(properties.getProperty(LINE_NAMES[i], "" + DEFAULT.lineWeights[i]).trim());
+			}
+
+			int[] simple = new int[SIMPLE_NAMES.length];
+			for(int i = 0; i < simple.length; i++){
+				simple[i] = Integer.parseInt(properties.getProperty(SIMPLE_NAMES[i], "" + DEFAULT.simpleWeights[i]).trim());
+			}
+
+			return new HeuristicWeights(line, simple);
+		} catch (NumberFormatException e) {
+			throw new IOException("Invalid weight in " + path + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Write the weights to 'path' in the format read by read()
+	 */
+	public void write(Path path) throws IOException {
+
+		try(Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)){
+			writer.write(toString());
+		}
+	}
+
+	/**
+	 * Return the weights of lines with connect, connect - 1, connect - 2 and connect - 3 pieces. This is a copy
+	 */
+	public int[] getLineWeights(){
+		return lineWeights.clone();
+	}
+
+	/**
+	 * Return the weight of lines with connect - 'distance' pieces, 'distance' 0 to 3
+	 */
+	public int getLineWeight(int distance){
+		return lineWeights[distance];
+	}
+
+	/**
+	 * Return the weights of lines with connect, connect - 1 and connect - 2 pieces in getSimpleHeuristic(),
+	 * the same layout as getLineWeights(). Full lines are not scored so the first one is always 0
+	 */
+	public int[] getSimpleWeights(){
+		return new int[]{0, simpleWeights[0], simpleWeights[1]};
+	}
+
+	/**
+	 * Return the weight of lines with connect - 'distance' pieces in getSimpleHeuristic(), 'distance' 1 or 2
+	 */
+	public int getSimpleWeight(int distance){
+
+		if(distance < 1 || distance > SIMPLE_NAMES.length) throw new Error("Invalid simple weight");
+		return simpleWeights[distance - 1];
+	}
+
+	/**
+	 * Return the weights one "name=value" per line, the format of the weights file
+	 */
+	public String toString(){
+
+		String s = "";
+		for(int i = 0; i < LINE_NAMES.length; i++){
+			s += LINE_NAMES[i] + "=" + lineWeights[i] + "\n";
+		}
+		for(int i = 0; i < SIMPLE_NAMES.length; i++){
+			s += SIMPLE_NAMES[i] + "=" + simpleWeights[i] + "\n";
+		}
+		return s;
+	}
+}
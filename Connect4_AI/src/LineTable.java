@@ -0,0 +1,139 @@
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every winning line of a board size: each run of connect (four) cells in a row, column or diagonal, plus the lines through each cell
+ *
+ * Made once per board size and connect length and shared by every board of that size, it is never written to after it is made.
+ * A cell is numbered column * rowSize + height, with height counted from the bottom of the column like the Zobrist keys.
+ * The lines through a cell are stored one cell after the other in one array:
+ *   lines through cell c = getCellLines()[getCellOffsets()[c]] ... getCellLines()[getCellOffsets()[c + 1] - 1]
+ * so a board can keep a count of pieces per line and update only the few lines through the cell that changed
+ * @author Avery Swank
+ */
+public class LineTable {
+
+	// (column, height) steps for horizontal, vertical and the two diagonal lines
+	private static final int[][] STEPS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+
+	private static final ConcurrentHashMap<String, LineTable> tables = new ConcurrentHashMap<String, LineTable>();
+
+	private int rowSize;
+	private int columnSize;
+	private int connect;
+	private int numLines;
+
+	// Cells of line l are lineCells[l * connect] ... lineCells[l * connect + connect - 1]
+	private int[] lineCells;
+
+	// Lines through each cell, see the class comment
+	private int[] cellOffsets;
+	private int[] cellLines;
+
+	private LineTable(int _rowSize, int _columnSize, int _connect){
+
+		rowSize = _rowSize;
+		columnSize = _columnSize;
+		connect = _connect;
+
+		// Count the lines first so every array is made at its final size
+		numLines = 0;
+		for(int d = 0; d < STEPS.length; d++){
+			for(int c = 0; c < columnSize; c++){
+				for(int h = 0; h < rowSize; h++){
+					if(fits(c, h, STEPS[d][0], STEPS[d][1])){
+						numLines++;
+					}
+				}
+			}
+		}
+
+		int cells = rowSize * columnSize;
+		lineCells = new int[numLines * connect];
+		cellOffsets = new int[cells + 1];
+
+		int line = 0;
+		for(int d = 0; d < STEPS.length; d++){
+			for(int c = 0; c < columnSize; c++){
+				for(int h = 0; h < rowSize; h++){
+					if(!fits(c, h, STEPS[d][0], STEPS[d][1])){
+						continue;
+					}
+
+					for(int i = 0; i < connect; i++){
+						int cell = (c + i * STEPS[d][0]) * rowSize + h + i * STEPS[d][1];
+						lineCells[line * connect + i] = cell;
+						cellOffsets[cell + 1]++;
+					}
+					line++;
+				}
+			}
+		}
+
+		// Turn the counts per cell into offsets, then fill in the lines of each cell
+		for(int cell = 0; cell < cells; cell++){
+			cellOffsets[cell + 1] += cellOffsets[cell];
+		}
+
+		cellLines = new int[numLines * connect];
+		int[] next = new int[cells];
+		for(int l = 0; l < numLines; l++){
+			for(int i = 0; i < connect; i++){
+				int cell = lineCells[l * connect + i];
+				cellLines[cellOffsets[cell] + next[cell]++] = l;
+			}
+		}
+	}
+
+	/**
+	 * Return the table of every line on a board of 'rowSize' rows and 'columnSize' columns with connect length 'connect'
+	 */
+	public static LineTable get(int rowSize, int columnSize, int connect){
+		return tables.computeIfAbsent(rowSize + "x" + columnSize + "x" + connect, k -> new LineTable(rowSize, columnSize, connect));
+	}
+
+	/**
+	 * Return true if a line starting at (column, height) going (dc, dh) stays on the board
+	 */
+	private boolean fits(int column, int height, int dc, int dh){
+
+		int endColumn = column + (connect - 1) * dc;
+		int endHeight = height + (connect - 1) * dh;
+		return endColumn < columnSize && endHeight >= 0 && endHeight < rowSize;
+	}
+
+	/**
+	 * Return the number of lines
+	 */
+	public int getNumLines(){
+		return numLines;
+	}
+
+	/**
+	 * Return the number of cells in each line
+	 */
+	public int getConnectLength(){
+		return connect;
+	}
+
+	/**
+	 * Return the cells of every line, connect cells per line. This is the table itself, do not change it
+	 */
+	public int[] getLineCells(){
+		return lineCells;
+	}
+
+	/**
+	 * Return where the lines of each cell start in getCellLines(), with one extra entry for the end of the last cell.
+	 * This is the table itself, do not change it
+	 */
+	public int[] getCellOffsets(){
+		return cellOffsets;
+	}
+
+	/**
+	 * Return the lines through every cell one cell after the other. This is the table itself, do not change it
+	 */
+	public int[] getCellLines(){
+		return cellLines;
+	}
+}
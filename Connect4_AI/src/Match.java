@@ -6,16 +6,26 @@ import java.util.ArrayList;
  */
 public class Match {
 
+	public static final String CSV_HEADER = "player,type,games,wins,ties,averageMovesToWin," + SearchStats.CSV_HEADER;
+
 	private Game game;
 	private int numGames;
 	private int numTies;
 	private ArrayList<Integer> p1Moves;
 	private ArrayList<Integer> p2Moves;
 	
+	// Every game played is appended here as a GameRecord, may be null
+	private GameLog log;
+	
 	public Match(Game _game, int _numGames){
+		this(_game, _numGames, null);
+	}
+	
+	public Match(Game _game, int _numGames, GameLog _log){
 		game = _game;
 		numGames = _numGames;
 		numTies = 0;
+		log = _log;
 		
 		p1Moves = new ArrayList<Integer>();
 		p2Moves = new ArrayList<Integer>();
@@ -30,11 +40,14 @@ public class Match {
 			for(int g = 1; g <= numGames; g++){
 
 				Player winner = game.play();
-				int totalMoves = game.getBoard().getNumMoves();
+				
+				if(log != null){
+					log.append(game.getRecord());
+				}
 				
 				// Update Game Counters
 				if(winner != null){
-					//System.out.println(winner.getName() + " won in " + totalMoves + " moves!");
+					//System.out.println(winner.getName() + " won in " + game.getBoard().getNumMoves() + " moves!");
 					winner.giveWin();
 				} else {
 					//System.out.println("Tie Game. No Points Awarded");
@@ -60,9 +73,13 @@ public class Match {
 	}
 	
 	/**
-	 * Return average integer of an ArrayList
+	 * Return average integer of an ArrayList, 0 if it is empty ie a player with no wins
 	 */
 	private double average(ArrayList<Integer> arr){
+		if(arr.isEmpty()){
+			return 0;
+		}
+		
 		int ave = 0;
 		for(int i = 0;i < arr.size(); i++){
 			ave += arr.get(i);
@@ -92,6 +109,21 @@ public class Match {
 		return numTies;
 	}
 	
+	/**
+	 * Return the number of games of this match won by the first player
+	 * Player.getWinCount() adds up the wins of every match the Player has played
+	 */
+	public int getPlayer1Wins(){
+		return p1Moves.size();
+	}
+	
+	/**
+	 * Return the number of games of this match won by the second player
+	 */
+	public int getPlayer2Wins(){
+		return p2Moves.size();
+	}
+	
 	public String toString(){
 		
 		double p1Average = average(p1Moves);
@@ -101,10 +133,108 @@ public class Match {
 		s += "Number of Games: " + numGames + "\n";
 		s += "Number of Ties: " + numTies + "\n\n";
 		s += game.getPlayer1();
-		s += "Average Number of Moves to Win: " + p1Average + "\n\n";
+		s += "Average Number of Moves to Win: " + p1Average + "\n";
+		s += game.getStats(game.getPlayer1()) + "\n\n";
 		s += game.getPlayer2();
-		s += "Average Number of Moves to Win: " + p2Average;
+		s += "Average Number of Moves to Win: " + p2Average + "\n";
+		s += game.getStats(game.getPlayer2());
 
 		return s;
 	}
+	
+	/**
+	 * Return the results of each player as CSV rows, with a header row
+	 */
+	public String toCsv(){
+		
+		Player p1 = game.getPlayer1();
+		Player p2 = game.getPlayer2();
+		
+		String s = CSV_HEADER + "\n";
+		s += toCsvRow(p1, numGames, getPlayer1Wins(), numTies, average(p1Moves), game.getStats(p1)) + "\n";
+		s += toCsvRow(p2, numGames, getPlayer2Wins(), numTies, average(p2Moves), game.getStats(p2)) + "\n";
+		
+		return s;
+	}
+	
+	/**
+	 * Return the results of each player as a JSON array
+	 */
+	public String toJson(){
+		
+		Player p1 = game.getPlayer1();
+		Player p2 = game.getPlayer2();
+		
+		String s = "[";
+		s += toJsonObject(p1, numGames, getPlayer1Wins(), numTies, average(p1Moves), game.getStats(p1)) + ", ";
+		s += toJsonObject(p2, numGames, getPlayer2Wins(), numTies, average(p2Moves), game.getStats(p2));
+		s += "]";
+		
+		return s;
+	}
+	
+	/**
+	 * Return one player's results as a CSV row in the columns of CSV_HEADER
+	 */
+	public static String toCsvRow(Player player, int games, int wins, int ties, double averageMoves, SearchStats stats){
+		return toCsvField(player.getName()) + "," + toCsvField(player.getType()) + "," + games + "," + wins + "," + ties + "," + averageMoves + "," + stats.toCsv();
+	}
+	
+	/**
+	 * Return one player's results as a JSON object
+	 */
+	public static String toJsonObject(Player player, int games, int wins, int ties, double averageMoves, SearchStats stats){
+		
+		String s = "{";
+		s += "\"player\": " + toJsonString(player.getName()) + ", ";
+		s += "\"type\": " + toJsonString(player.getType()) + ", ";
+		s += "\"games\": " + games + ", ";
+		s += "\"wins\": " + wins + ", ";
+		s += "\"ties\": " + ties + ", ";
+		s += "\"averageMovesToWin\": " + averageMoves + ", ";
+		s += "\"search\": " + stats.toJson();
+		s += "}";
+		
+		return s;
+	}
+	
+	/**
+	 * Return 'value' as one CSV field, in quotes with its quotes doubled if it has a comma, quote or line break
+	 */
+	private static String toCsvField(String value){
+		
+		if(value.indexOf(',') == -1 && value.indexOf('"') == -1 && value.indexOf('\n') == -1 && value.indexOf('\r') == -1){
+			return value;
+		}
+		
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+	
+	/**
+	 * Return 'value' as a JSON string in quotes, with quotes, backslashes and control characters escaped
+	 */
+	private static String toJsonString(String value){
+		
+		StringBuilder s = new StringBuilder(value.length() + 2);
+		s.append('"');
+		for(int i = 0; i < value.length(); i++){
+			char c = value.charAt(i);
+			if(c == '"' || c == '\\'){
+				s.append('\\').append(c);
+			} else if(c == '\n'){
+				s.append("\\n");
+			} else if(c == '\r'){
+				s.append("\\r");
+			} else if(c == '\t'){
+				s.append("\\t");
+			} else if(c < 0x20){
+				s.append(String.format("\\u%04x", (int) c));
+			} else {
+				s.append(c);
+			}
+		}
+		s.append('"');
+		
+		return s.toString();
+	}
 }
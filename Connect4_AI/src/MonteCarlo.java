@@ -0,0 +1,340 @@
+import java.util.Arrays;
+
+/**
+ * Monte Carlo Tree Search with UCT
+ *
+ * Instead of a heuristic, a position is scored by playing it out to the end of the game over and over. Every iteration
+ * walks down the tree picking the child with the best UCT score
+ *   wins / visits + exploration * sqrt(ln(parent visits) / visits)
+ * expands the leaf it reaches, plays one game out from there and adds the result to every node on the way back up.
+ * The move played is the most visited child of the root.
+ *
+ * The tree is stored in flat arrays indexed by node, the children of a node are next to each other in column order
+ * from the center out. The arrays are reused from one search to the next, so a search allocates nothing once they
+ * have grown to the size of the tree
+ * @author Avery Swank
+ */
+public class MonteCarlo {
+
+	// sqrt(2), the exploration constant of UCT for results between 0 and 1
+	public static final double DEFAULT_EXPLORATION = 1.41;
+	public static final int DEFAULT_MAX_NODES = 1 << 20;
+
+	// Result of the move into a node, for the side that played it
+	static final byte OPEN = 0;
+	static final byte WIN = 1;
+	static final byte DRAW = 2;
+
+	private double exploration;
+	private Playout playout;
+	private int maxNodes;
+
+	// The tree, node 0 is the root
+	private int[] firstChild;
+	private byte[] numChildren;
+	private byte[] columns;
+	private byte[] results;
+	private int[] visits;
+	private double[] wins;
+	private int size;
+
+	// Nodes from the root to the leaf of the current iteration
+	private int[] path;
+	private int[] columnOrder;
+
+	// Work done by the current search, see SearchStats
+	private long nodes;
+	private int maxDepth;
+	private long startNanos;
+
+	public MonteCarlo(){
+		this(DEFAULT_EXPLORATION, Playout.RANDOM, DEFAULT_MAX_NODES);
+	}
+
+	public MonteCarlo(double _exploration, int _policy, int _maxNodes){
+
+		if(_exploration < 0) throw new Error("Invalid exploration constant");
+		if(_maxNodes < 1) throw new Error("Invalid number of nodes");
+
+		exploration = _exploration;
+		playout = new Playout(_policy);
+		maxNodes = _maxNodes;
+		grow(Math.min(4096, maxNodes));
+	}
+
+	/**
+	 * Run 'iterations' iterations for side 'side' (0 or 1), or until 'millis' milliseconds have passed, and return the most visited column
+	 * Either budget can be 0 for no limit, the search stops at the first one it reaches.
+	 * The score is the share of the playouts through that column that 'side' won, in thousandths with draws counted as half
+	 */
+	public SearchResult search(Board board, int side, long iterations, long millis){
+
+		if(iterations < 1 && millis < 1) throw new Error("Monte Carlo search needs a number of iterations or a search time");
+		if(board.isBoardFull()) throw new Error("Cannot search a full board");
+
+		startNanos = System.nanoTime();
+		nodes = 0;
+		maxDepth = 0;
+		playout.resetStats();
+		prepare(board);
+
+		size = 1;
+		clearNode(0, -1);
+
+		long deadline = (millis > 0) ? startNanos + millis * 1000000L : Long.MAX_VALUE;
+		for(long i = 0; iterations < 1 || i < iterations; i++){
+
+			// nanoTime() is cheap next to a playout but not free, check it every few iterations
+			if((i & 15) == 0 && System.nanoTime() >= deadline){
+				break;
+			}
+
+			iterate(board, side);
+		}
+
+		int best = getMostVisited(0);
+		int[] pv = getPrincipalVariation(best);
+		int score = (int) Math.round(1000 * wins[best] / Math.max(1, visits[best]));
+
+		SearchStats stats = new SearchStats(1, nodes + playout.getNodes(), playout.getPlayouts(), 0, 0, maxDepth, System.nanoTime() - startNanos);
+		return new SearchResult(columns[best], score, pv.length, pv, stats);
+	}
+
+	/**
+	 * Return the number of times each column was visited from the root by the last search, 0 for full columns
+	 * The counts of several searches of the same position can be added up, see ParallelMonteCarlo
+	 */
+	public int[] getRootVisits(int columnSize){
+
+		int[] counts = new int[columnSize];
+		for(int i = 0; i < numChildren[0]; i++){
+			int child = firstChild[0] + i;
+			counts[columns[child]] = visits[child];
+		}
+
+		return counts;
+	}
+
+	/**
+	 * Return the results of the playouts through each column from the root by the last search, for the side searched for
+	 */
+	public double[] getRootWins(int columnSize){
+
+		double[] totals = new double[columnSize];
+		for(int i = 0; i < numChildren[0]; i++){
+			int child = firstChild[0] + i;
+			totals[columns[child]] = wins[child];
+		}
+
+		return totals;
+	}
+
+	/**
+	 * Return the number of nodes in the tree of the last search
+	 */
+	public int getTreeSize(){
+		return size;
+	}
+
+	/**
+	 * One iteration: select a leaf, expand it, play out from it and back the result up to the root
+	 */
+	private void iterate(Board board, int side){
+
+		int node = 0;
+		int depth = 0;
+		int toMove = side;
+		path[0] = 0;
+
+		// Selection, down to a node that has no children yet or ends the game
+		while(firstChild[node] != -1 && results[node] == OPEN){
+			node = select(node);
+			board.addPiece(columns[node], toMove);
+			toMove = 1 - toMove;
+			path[++depth] = node;
+			nodes++;
+		}
+
+		// Expansion, a leaf gets its children the second time it is reached so single visits do not fill the tree
+		if(results[node] == OPEN && (visits[node] > 0 || node == 0) && size + columnOrder.length <= maxNodes){
+			expand(node, board, toMove);
+			node = firstChild[node];
+			board.addPiece(columns[node], toMove);
+			toMove = 1 - toMove;
+			path[++depth] = node;
+			nodes++;
+		}
+		maxDepth = Math.max(maxDepth, depth);
+
+		// Result for the side that moved into the leaf, 1 for a win, 0.5 for a draw and 0 for a loss
+		double value;
+		if(results[node] == WIN){
+			value = 1;
+		} else if(results[node] == DRAW){
+			value = 0.5;
+		} else {
+			int winner = playout.play(board, toMove);
+			value = (winner == -1) ? 0.5 : (winner == toMove ? 0 : 1);
+		}
+
+		// Backpropagation, every level up the tree is the other side's point of view
+		for(int d = depth; d >= 0; d--){
+			int n = path[d];
+			visits[n]++;
+			wins[n] += value;
+			value = 1 - value;
+
+			if(d > 0){
+				board.removeSymbol(columns[n]);
+			}
+		}
+	}
+
+	/**
+	 * Return the child of 'node' with the highest UCT score, children that were never visited go first
+	 */
+	private int select(int node){
+
+		double logVisits = Math.log(visits[node]);
+		int first = firstChild[node];
+		int best = first;
+		double bestScore = Double.NEGATIVE_INFINITY;
+
+		for(int child = first; child < first + numChildren[node]; child++){
+			if(visits[child] == 0){
+				return child;
+			}
+
+			double score = wins[child] / visits[child] + exploration * Math.sqrt(logVisits / visits[child]);
+			if(score > bestScore){
+				best = child;
+				bestScore = score;
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Add a child for every available column of 'node', 'side' is the side to move
+	 * Children that end the game are marked as wins or draws so they are never played out
+	 */
+	private void expand(int node, Board board, int side){
+
+		firstChild[node] = size;
+		for(int i = 0; i < columnOrder.length; i++){
+			int col = columnOrder[i];
+			if(board.isFull(col)){
+				continue;
+			}
+
+			clearNode(size, col);
+			board.addPiece(col, side);
+			if(board.hasWonAfter(col)){
+				results[size] = WIN;
+			} else if(board.isBoardFull()){
+				results[size] = DRAW;
+			}
+			board.removeSymbol(col);
+
+			size++;
+			numChildren[node]++;
+		}
+	}
+
+	/**
+	 * Return the most visited child of 'node'
+	 */
+	private int getMostVisited(int node){
+
+		int first = firstChild[node];
+		int best = first;
+		for(int child = first; child < first + numChildren[node]; child++){
+			if(visits[child] > visits[best]){
+				best = child;
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Return the columns of the most visited line of the tree starting with the child 'node' of the root
+	 */
+	private int[] getPrincipalVariation(int node){
+
+		int length = 1;
+		for(int n = node; firstChild[n] != -1; n = getMostVisited(n)){
+			length++;
+		}
+
+		int[] pv = new int[length];
+		int n = node;
+		for(int i = 0; i < length; i++){
+			pv[i] = columns[n];
+			if(firstChild[n] != -1){
+				n = getMostVisited(n);
+			}
+		}
+
+		return pv;
+	}
+
+	/**
+	 * Size the buffers for 'board' and make sure a full expansion always fits in the tree arrays
+	 */
+	private void prepare(Board board){
+
+		int cells = board.getRowSize() * board.getColumnSize();
+		if(path == null || path.length < cells + 1){
+			path = new int[cells + 1];
+		}
+
+		int columnSize = board.getColumnSize();
+		if(columnOrder == null || columnOrder.length != columnSize){
+			columnOrder = MoveOrderer.getCenterOrder(columnSize);
+		}
+
+		if(maxNodes < columnSize + 1) throw new Error("Monte Carlo tree is too small for this board");
+	}
+
+	/**
+	 * Reset 'node' as a new node reached by playing 'column'
+	 */
+	private void clearNode(int node, int column){
+
+		if(node >= firstChild.length){
+			grow(Math.min(maxNodes, firstChild.length * 2));
+		}
+
+		firstChild[node] = -1;
+		numChildren[node] = 0;
+		columns[node] = (byte) column;
+		results[node] = OPEN;
+		visits[node] = 0;
+		wins[node] = 0;
+	}
+
+	/**
+	 * Grow the tree arrays to 'capacity' nodes, keeping the nodes already in them
+	 */
+	private void grow(int capacity){
+
+		if(firstChild == null){
+			firstChild = new int[capacity];
+			numChildren = new byte[capacity];
+			columns = new byte[capacity];
+			results = new byte[capacity];
+			visits = new int[capacity];
+			wins = new double[capacity];
+			return;
+		}
+
+		firstChild = Arrays.copyOf(firstChild, capacity);
+		numChildren = Arrays.copyOf(numChildren, capacity);
+		columns = Arrays.copyOf(columns, capacity);
+		results = Arrays.copyOf(results, capacity);
+		visits = Arrays.copyOf(visits, capacity);
+		wins = Arrays.copyOf(wins, capacity);
+	}
+}
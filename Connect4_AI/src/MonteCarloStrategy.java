@@ -0,0 +1,27 @@
+
+/**
+ * Strategy of the "mcts" and "mcts-naive" Players: a MonteCarlo search for the iterations or the time of the SearchLimits
+ * The tree arrays are kept from one move to the next so they only grow once
+ * @author Avery Swank
+ */
+public class MonteCarloStrategy implements Strategy {
+
+	private MonteCarlo search;
+	private SearchStats lastStats;
+
+	public MonteCarloStrategy(double _exploration, int _policy){
+		search = new MonteCarlo(_exploration, _policy, MonteCarlo.DEFAULT_MAX_NODES);
+	}
+
+	public int chooseMove(Board board, int side, SearchLimits limits){
+
+		SearchResult result = search.search(board, side, limits.getIterations(), limits.getMillis());
+
+		lastStats = result.getStats();
+		return result.getColumn();
+	}
+
+	public SearchStats getLastStats(){
+		return lastStats;
+	}
+}
@@ -0,0 +1,164 @@
+
+/**
+ * Orders the columns searched at each node so the best move is most likely searched first
+ *
+ * Alpha-beta prunes the most when the best move comes first. Board.getAvailableColumns() returns the columns
+ * left to right, which searches the weak edge columns first, so every column is ranked by:
+ *   1. the best move stored in the transposition table for this position
+ *   2. killer moves: the last two columns that caused a cutoff at the same ply in another branch
+ *   3. the history table: how often (weighted by depth) a move to that cell caused a cutoff anywhere
+ *   4. closeness to the center column, which is part of the most possible Connect 4s
+ * Columns are written into a buffer the caller reuses, so ordering never allocates
+ * @author Avery Swank
+ */
+public class MoveOrderer {
+
+	private static final int TT_MOVE_SCORE = 1 << 30;
+	private static final int KILLER_SCORE = 1 << 29;
+
+	private int rowSize;
+	private int columnSize;
+
+	// killers[ply][0..1], -1 for none
+	private int[][] killers;
+
+	// history[side][column * rowSize + height]
+	private int[][] history;
+
+	// Scores of the columns being sorted at each ply
+	private int[][] scores;
+
+	public MoveOrderer(int _rowSize, int _columnSize){
+
+		rowSize = _rowSize;
+		columnSize = _columnSize;
+
+		// A game cannot be longer than the number of cells
+		int maxPly = rowSize * columnSize + 1;
+		killers = new int[maxPly][2];
+		history = new int[2][rowSize * columnSize];
+		scores = new int[maxPly][columnSize];
+
+		clear();
+	}
+
+	/**
+	 * Return true if this orderer was made for a board of the same size as 'board'
+	 */
+	public boolean fits(Board board){
+		return board.getRowSize() == rowSize && board.getColumnSize() == columnSize;
+	}
+
+	/**
+	 * Return the columns of a board 'columnSize' wide from the center out, ie 3 2 4 1 5 0 6 on 7 columns
+	 * The order the searches that do not use a MoveOrderer try their moves in, left of the center first on ties
+	 */
+	public static int[] getCenterOrder(int columnSize){
+
+		int[] order = new int[columnSize];
+		for(int i = 0; i < columnSize; i++){
+			order[i] = columnSize / 2 + (1 - 2 * (i % 2)) * (i + 1) / 2;
+		}
+
+		return order;
+	}
+
+	/**
+	 * Forget the killer moves and halve the history before a new search
+	 * Old history is still a good guess, but newer cutoffs should count for more
+	 */
+	public void newSearch(){
+
+		for(int i = 0; i < killers.length; i++){
+			killers[i][0] = -1;
+			killers[i][1] = -1;
+		}
+
+		for(int s = 0; s < history.length; s++){
+			for(int i = 0; i < history[s].length; i++){
+				history[s][i] /= 2;
+			}
+		}
+	}
+
+	/**
+	 * Forget everything
+	 */
+	public void clear(){
+
+		newSearch();
+		for(int s = 0; s < history.length; s++){
+			for(int i = 0; i < history[s].length; i++){
+				history[s][i] = 0;
+			}
+		}
+	}
+
+	/**
+	 * Write the available columns of 'board' into 'buffer' best first and return how many there are
+	 * 'side' (0 or 1) is the player to move and 'ttMove' the transposition table move, or -1 for none
+	 */
+	public int orderMoves(Board board, int ply, int side, int ttMove, int[] buffer){
+
+		int count = board.getAvailableColumns(buffer);
+		int[] score = scores[ply];
+		int center = columnSize / 2;
+
+		for(int i = 0; i < count; i++){
+			int col = buffer[i];
+
+			if(col == ttMove){
+				score[i] = TT_MOVE_SCORE;
+			} else if(col == killers[ply][0]){
+				score[i] = KILLER_SCORE + 1;
+			} else if(col == killers[ply][1]){
+				score[i] = KILLER_SCORE;
+			} else {
+				// History decides between moves that have caused cutoffs, the center breaks ties
+				int cell = col * rowSize + board.getHeight(col);
+				score[i] = history[side][cell] * columnSize + (center - Math.abs(center - col));
+			}
+		}
+
+		// Insertion sort, there are never more than columnSize moves
+		for(int i = 1; i < count; i++){
+			int col = buffer[i];
+			int s = score[i];
+			int j = i - 1;
+			while(j >= 0 && score[j] < s){
+				buffer[j + 1] = buffer[j];
+				score[j + 1] = score[j];
+				j--;
+			}
+			buffer[j + 1] = col;
+			score[j + 1] = s;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Remember that playing 'col' for 'side' at 'ply' caused a cutoff 'depth' plies from the leaves
+	 * 'height' is the height in the column the piece was played at
+	 */
+	public void addCutoff(int ply, int side, int col, int height, int depth){
+
+		if(killers[ply][0] != col){
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = col;
+		}
+
+		// Deeper cutoffs save more work, so they count for more
+		int cell = col * rowSize + height;
+		history[side][cell] += depth * depth;
+
+		// Keep history well below the killer and transposition table scores
+		if(history[side][cell] > (1 << 20)){
+			for(int s = 0; s < history.length; s++){
+				for(int i = 0; i < history[s].length; i++){
+					history[s][i] /= 2;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,208 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Opening book: the best move of every position in the first plies of a game, made ahead of time by BookGenerator
+ *
+ * The opening is where the search tree is widest and every game starts from the same few positions, so searching
+ * them once and looking them up after saves the most expensive moves of every game. The file is memory-mapped and
+ * never loaded onto the heap. It is a header followed by fixed size records sorted by key, so a lookup is a binary search:
+ *   header: magic, version, rows, columns, max ply, number of records (ints)
+ *   record: Board.getCanonicalKey() (long), score (short), column (byte), depth (byte)
+ * A position and its mirror image share a record, the column is stored as played on the canonical side of the board
+ * Lookups only use absolute reads of the mapped buffer, so one book can be shared by every thread
+ * @author Avery Swank
+ */
+public class OpeningBook {
+
+	// Read by the search functions when the system property is not set, ie java -Dconnect4.book=my.book Run
+	public static final String DEFAULT_FILE = "opening.book";
+	public static final String FILE_PROPERTY = "connect4.book";
+
+	private static final int MAGIC = 0x43344F42;
+	private static final int VERSION = 2;
+	private static final int HEADER_BYTES = 24;
+	private static final int RECORD_BYTES = 12;
+
+	private MappedByteBuffer buffer;
+	private int rowSize;
+	private int columnSize;
+	private int maxPly;
+	private int size;
+
+	public OpeningBook(Path path) throws IOException {
+
+		// The mapping stays valid after the channel is closed
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+			if(channel.size() < HEADER_BYTES) throw new IOException("Not an opening book: " + path);
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		if(buffer.getInt(0) != MAGIC) throw new IOException("Not an opening book: " + path);
+		if(buffer.getInt(4) != VERSION) throw new IOException("Unsupported opening book version: " + path);
+
+		rowSize = buffer.getInt(8);
+		columnSize = buffer.getInt(12);
+		maxPly = buffer.getInt(16);
+		size = buffer.getInt(20);
+
+		if(buffer.capacity() != HEADER_BYTES + (long) size * RECORD_BYTES) throw new IOException("Opening book is truncated: " + path);
+	}
+
+	/**
+	 * Return the book named by the connect4.book system property, or opening.book in the working directory
+	 * Return null if there is no book, or the property is set to an empty string
+	 * The book is loaded the first time this is called, every strategy calls it on every move so it takes no lock
+	 */
+	public static OpeningBook getDefault(){
+		return DefaultBook.BOOK;
+	}
+
+	/**
+	 * Loads the default book when getDefault() is first called, the JVM runs this once and every read after is a plain field read
+	 */
+	private static class DefaultBook {
+
+		static final OpeningBook BOOK = load();
+
+		private static OpeningBook load(){
+
+			String file = System.getProperty(FILE_PROPERTY, DEFAULT_FILE);
+			if(file.isEmpty() || !Files.exists(Paths.get(file))){
+				return null;
+			}
+
+			try{
+				return new OpeningBook(Paths.get(file));
+			} catch (IOException e) {
+				System.out.println("Could not read opening book: " + e.getMessage());
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Return the move of the default book for 'board', or null if there is no default book or the position is not in it
+	 */
+	public static SearchResult probeDefault(Board board){
+
+		OpeningBook book = getDefault();
+		if(book == null){
+			return null;
+		}
+
+		return book.probe(board);
+	}
+
+	/**
+	 * Return the book move of 'board' as a SearchResult, or null if the position is not in the book
+	 */
+	public SearchResult probe(Board board){
+
+		long start = System.nanoTime();
+		if(!fits(board) || board.getNumMoves() > maxPly){
+			return null;
+		}
+
+		int index = find(board.getCanonicalKey());
+		if(index < 0){
+			return null;
+		}
+
+		int position = HEADER_BYTES + index * RECORD_BYTES;
+		int score = buffer.getShort(position + 8);
+		int column = buffer.get(position + 10);
+		if(board.isMirrored()){
+			column = board.getMirrorColumn(column);
+		}
+		int depth = buffer.get(position + 11) & 0xFF;
+
+		return new SearchResult(column, score, depth, new int[]{column}, new SearchStats(1, 0, 0, 0, 0, 0, System.nanoTime() - start));
+	}
+
+	/**
+	 * Return true if this book was made for a board of the same size as 'board', books are always Connect 4
+	 */
+	public boolean fits(Board board){
+		return board.getRowSize() == rowSize && board.getColumnSize() == columnSize && board.getConnectLength() == 4;
+	}
+
+	/**
+	 * Return the number of pieces on the board of the deepest positions in the book
+	 */
+	public int getMaxPly(){
+		return maxPly;
+	}
+
+	/**
+	 * Return the number of positions in the book
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * Return the index of the record for 'key', or -1 if there is none
+	 */
+	private int find(long key){
+
+		int low = 0;
+		int high = size - 1;
+		while(low <= high){
+			int mid = (low + high) >>> 1;
+			long midKey = buffer.getLong(HEADER_BYTES + mid * RECORD_BYTES);
+
+			if(midKey < key){
+				low = mid + 1;
+			} else if(midKey > key){
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Write a book of 'count' positions to 'path', entry i is the key, score, column and depth at index i of each array
+	 * The arrays do not have to be sorted
+	 */
+	public static void write(Path path, int rowSize, int columnSize, int maxPly, int count, long[] keys, int[] scores, int[] columns, int[] depths) throws IOException {
+
+		// Sort the indices instead of the records so the four arrays stay together
+		Integer[] order = new Integer[count];
+		for(int i = 0; i < count; i++){
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))){
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(rowSize);
+			out.writeInt(columnSize);
+			out.writeInt(maxPly);
+			out.writeInt(count);
+
+			for(int i = 0; i < count; i++){
+				int e = order[i];
+				if(i > 0 && keys[e] == keys[order[i - 1]]) throw new Error("Opening book has the same position twice");
+
+				// Alpha-beta win scores do not fit in a short, but they stay the highest scores in the book
+				out.writeLong(keys[e]);
+				out.writeShort(Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, scores[e])));
+				out.writeByte(columns[e]);
+				out.writeByte(Math.min(255, depths[e]));
+			}
+		}
+	}
+}
@@ -0,0 +1,185 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe results of all the games played between two players in a Tournament
+ * Games of the same pairing can finish on different threads at the same time, so every counter is atomic
+ * @author Avery Swank
+ */
+public class PairingStats {
+
+	private Player p1;
+	private Player p2;
+	private int numGames;
+
+	private AtomicInteger gamesPlayed;
+	private AtomicInteger p1Wins;
+	private AtomicInteger p2Wins;
+	private AtomicInteger numTies;
+
+	// Total moves of the games each player won, for the average number of moves to win
+	private AtomicLong p1WinMoves;
+	private AtomicLong p2WinMoves;
+
+	// Search work of every move each player made
+	private SearchStats p1Stats;
+	private SearchStats p2Stats;
+
+	public PairingStats(Player _p1, Player _p2, int _numGames){
+		p1 = _p1;
+		p2 = _p2;
+		numGames = _numGames;
+
+		gamesPlayed = new AtomicInteger();
+		p1Wins = new AtomicInteger();
+		p2Wins = new AtomicInteger();
+		numTies = new AtomicInteger();
+		p1WinMoves = new AtomicLong();
+		p2WinMoves = new AtomicLong();
+		p1Stats = new SearchStats();
+		p2Stats = new SearchStats();
+	}
+
+	/**
+	 * Record the result of one game, 'winner' is null for a tie
+	 */
+	public void addGame(Player winner, int totalMoves){
+
+		if(winner == p1){
+			p1Wins.incrementAndGet();
+			p1WinMoves.addAndGet(totalMoves);
+		} else if(winner == p2){
+			p2Wins.incrementAndGet();
+			p2WinMoves.addAndGet(totalMoves);
+		} else {
+			numTies.incrementAndGet();
+		}
+
+		gamesPlayed.incrementAndGet();
+	}
+
+	/**
+	 * Add the search work of a batch of games, see Game.getStats()
+	 */
+	public void addSearchStats(SearchStats _p1Stats, SearchStats _p2Stats){
+		p1Stats.add(_p1Stats);
+		p2Stats.add(_p2Stats);
+	}
+
+	/**
+	 * Return the search work of every move 'player' made
+	 */
+	public SearchStats getStats(Player player){
+		return (player == p1) ? p1Stats : p2Stats;
+	}
+
+	/**
+	 * Return Player 1
+	 */
+	public Player getPlayer1(){
+		return p1;
+	}
+
+	/**
+	 * Return Player 2
+	 */
+	public Player getPlayer2(){
+		return p2;
+	}
+
+	/**
+	 * Return number of games to play
+	 */
+	public int getNumGames(){
+		return numGames;
+	}
+
+	/**
+	 * Return number of games finished so far
+	 */
+	public int getGamesPlayed(){
+		return gamesPlayed.get();
+	}
+
+	/**
+	 * Return number of games won by Player 1, which are the losses of Player 2
+	 */
+	public int getPlayer1Wins(){
+		return p1Wins.get();
+	}
+
+	/**
+	 * Return number of games won by Player 2, which are the losses of Player 1
+	 */
+	public int getPlayer2Wins(){
+		return p2Wins.get();
+	}
+
+	/**
+	 * Return number of ties
+	 */
+	public int getNumTies(){
+		return numTies.get();
+	}
+
+	/**
+	 * Return the average number of moves of the games won by Player 1, 0 if Player 1 has not won
+	 */
+	public double getPlayer1AverageMoves(){
+		return average(p1WinMoves.get(), p1Wins.get());
+	}
+
+	/**
+	 * Return the average number of moves of the games won by Player 2, 0 if Player 2 has not won
+	 */
+	public double getPlayer2AverageMoves(){
+		return average(p2WinMoves.get(), p2Wins.get());
+	}
+
+	/**
+	 * Return 'moves' over 'wins' games, or 0 for no games
+	 */
+	private static double average(long moves, int wins){
+		return (wins == 0) ? 0 : (double) moves / wins;
+	}
+
+	/**
+	 * Same report as Match.toString()
+	 */
+	public String toString(){
+
+		String s = "------Match Results------\n";
+		s += "Number of Games: " + getGamesPlayed() + "\n";
+		s += "Number of Ties: " + getNumTies() + "\n\n";
+		s += "Player: " + p1.getName() + '\n';
+		s += "Symbol: " + p1.getSymbol() + '\n';
+		s += "Wins: " + getPlayer1Wins() + '\n';
+		s += "Average Number of Moves to Win: " + getPlayer1AverageMoves() + "\n";
+		s += p1Stats + "\n\n";
+		s += "Player: " + p2.getName() + '\n';
+		s += "Symbol: " + p2.getSymbol() + '\n';
+		s += "Wins: " + getPlayer2Wins() + '\n';
+		s += "Average Number of Moves to Win: " + getPlayer2AverageMoves() + "\n";
+		s += p2Stats;
+
+		return s;
+	}
+
+	/**
+	 * Return the results of each player as CSV rows in the columns of Match.CSV_HEADER, without the header
+	 */
+	public String toCsv(){
+		String s = Match.toCsvRow(p1, getGamesPlayed(), getPlayer1Wins(), getNumTies(), getPlayer1AverageMoves(), p1Stats) + "\n";
+		s += Match.toCsvRow(p2, getGamesPlayed(), getPlayer2Wins(), getNumTies(), getPlayer2AverageMoves(), p2Stats) + "\n";
+		return s;
+	}
+
+	/**
+	 * Return the results of each player as JSON objects separated by a comma
+	 */
+	public String toJson(){
+		String s = Match.toJsonObject(p1, getGamesPlayed(), getPlayer1Wins(), getNumTies(), getPlayer1AverageMoves(), p1Stats) + ", ";
+		s += Match.toJsonObject(p2, getGamesPlayed(), getPlayer2Wins(), getNumTies(), getPlayer2AverageMoves(), p2Stats);
+		return s;
+	}
+}
@@ -0,0 +1,484 @@
+import java.util.ArrayList;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Monte Carlo Tree Search on many threads, the workers run on the pools of ParallelSearch and play on boards from the BoardPool
+ *
+ * Two ways to split the work:
+ *   - root parallel: every thread grows its own MonteCarlo tree and the visits of the root moves are added up at the end.
+ *     The threads never talk to each other, but each tree only gets its share of the iterations
+ *   - tree parallel: every thread grows one shared tree. Visits and wins are atomic counters, so no node is ever locked.
+ *     A thread adds a virtual loss to every node it walks through and takes it back when its playout is done, so the
+ *     threads behind it see that line as worse for a moment and spread out over the tree instead of all playing it.
+ *     Every iteration goes through the root, so it keeps no counts of its own: its visits are the sum of its children's
+ *     and each thread runs its own share of the iterations, so the threads share no counter every iteration
+ * @author Avery Swank
+ */
+public class ParallelMonteCarlo {
+
+	public static final int ROOT_PARALLEL = 0;
+	public static final int TREE_PARALLEL = 1;
+
+	// Visits added to every node on the way down of an iteration and taken back on the way up
+	private static final int VIRTUAL_LOSS = 3;
+
+	// firstChild of a node while one thread adds its children, other threads play out from the node instead of waiting
+	private static final int EXPANDING = -2;
+
+	private double exploration;
+	private int policy;
+	private int mode;
+	private int threads;
+	private int maxNodes;
+
+	// Root parallel: one tree per thread, kept between searches
+	private MonteCarlo[] trees;
+
+	// Tree parallel: the shared tree, node 0 is the root. Wins are in half points so a draw can be added atomically
+	private AtomicIntegerArray firstChild;
+	private byte[] numChildren;
+	private byte[] columns;
+	private byte[] results;
+	private AtomicIntegerArray visits;
+	// Playouts finished through a node, its visits without the virtual losses of the threads still below it
+	private AtomicIntegerArray played;
+	private AtomicLongArray wins;
+	private AtomicInteger size;
+	private int[] columnOrder;
+
+	public ParallelMonteCarlo(double _exploration, int _policy, int _mode, int _threads){
+		this(_exploration, _policy, _mode, _threads, MonteCarlo.DEFAULT_MAX_NODES);
+	}
+
+	public ParallelMonteCarlo(double _exploration, int _policy, int _mode, int _threads, int _maxNodes){
+
+		if(_exploration < 0) throw new Error("Invalid exploration constant");
+		if(_policy != Playout.RANDOM && _policy != Playout.NAIVE) throw new Error("Invalid playout policy");
+		if(_mode != ROOT_PARALLEL && _mode != TREE_PARALLEL) throw new Error("Invalid parallel Monte Carlo mode");
+		if(_threads < 1) throw new Error("Invalid number of threads");
+		if(_maxNodes < 1) throw new Error("Invalid number of nodes");
+
+		exploration = _exploration;
+		policy = _policy;
+		mode = _mode;
+		threads = _threads;
+		maxNodes = _maxNodes;
+	}
+
+	/**
+	 * Run 'iterations' iterations in total for side 'side' (0 or 1), or until 'millis' milliseconds have passed, and return the most visited column
+	 * Same budgets and score as MonteCarlo.search()
+	 */
+	public SearchResult search(Board board, int side, long iterations, long millis){
+
+		if(iterations < 1 && millis < 1) throw new Error("Monte Carlo search needs a number of iterations or a search time");
+		if(board.isBoardFull()) throw new Error("Cannot search a full board");
+
+		if(mode == ROOT_PARALLEL){
+			return searchRoots(board, side, iterations, millis);
+		}
+		return searchTree(board, side, iterations, millis);
+	}
+
+	/**
+	 * Root parallel: one independent tree per thread, the most visited column over all of the trees is played
+	 */
+	private SearchResult searchRoots(Board board, int side, long iterations, long millis){
+
+		long start = System.nanoTime();
+		int columnSize = board.getColumnSize();
+		if(trees == null){
+			trees = new MonteCarlo[threads];
+			for(int i = 0; i < threads; i++){
+				trees[i] = new MonteCarlo(exploration, policy, Math.max(columnSize + 1, maxNodes / threads));
+			}
+		}
+
+		ArrayList<RootTree> tasks = new ArrayList<RootTree>();
+		for(int i = 0; i < threads; i++){
+			// Split the iterations as evenly as possible, every tree runs for the whole time
+			long share = (iterations < 1) ? 0 : iterations / threads + (i < iterations % threads ? 1 : 0);
+			if(iterations < 1 || share > 0){
+				tasks.add(new RootTree(trees[i], board, side, share, millis));
+			}
+		}
+		invokeAll(tasks);
+
+		int[] counts = new int[columnSize];
+		double[] totals = new double[columnSize];
+		SearchStats workers = new SearchStats();
+		int depth = 0;
+		for(int i = 0; i < tasks.size(); i++){
+			RootTree task = tasks.get(i);
+			int[] visits = task.tree.getRootVisits(columnSize);
+			double[] results = task.tree.getRootWins(columnSize);
+			for(int col = 0; col < columnSize; col++){
+				counts[col] += visits[col];
+				totals[col] += results[col];
+			}
+			workers.add(task.result.getStats());
+			depth = Math.max(depth, task.result.getDepth());
+		}
+
+		// Ties go to the column closest to the center, the same order the trees expand their children in
+		int[] order = MoveOrderer.getCenterOrder(columnSize);
+		int best = -1;
+		for(int i = 0; i < columnSize; i++){
+			int col = order[i];
+			if(!board.isFull(col) && (best == -1 || counts[col] > counts[best])){
+				best = col;
+			}
+		}
+
+		int score = (int) Math.round(1000 * totals[best] / Math.max(1, counts[best]));
+		SearchStats stats = new SearchStats(1, workers.getNodes(), workers.getLeafEvaluations(), 0, 0, workers.getMaxDepth(), System.nanoTime() - start);
+		return new SearchResult(best, score, depth, new int[]{best}, stats);
+	}
+
+	/**
+	 * Tree parallel: every thread grows the same tree until the iterations or the time run out
+	 */
+	private SearchResult searchTree(Board board, int side, long iterations, long millis){
+
+		long start = System.nanoTime();
+		prepare(board);
+
+		size.set(1);
+		clearNode(0, -1);
+
+		long deadline = (millis > 0) ? start + millis * 1000000L : Long.MAX_VALUE;
+
+		ArrayList<TreeWorker> tasks = new ArrayList<TreeWorker>();
+		for(int i = 0; i < threads; i++){
+			// Split the iterations as evenly as possible like searchRoots(), every thread runs for the whole time
+			long share = (iterations < 1) ? 0 : iterations / threads + (i < iterations % threads ? 1 : 0);
+			if(iterations < 1 || share > 0){
+				tasks.add(new TreeWorker(board, side, share, deadline));
+			}
+		}
+		invokeAll(tasks);
+
+		long nodes = 0;
+		long playouts = 0;
+		int maxDepth = 0;
+		for(int i = 0; i < tasks.size(); i++){
+			TreeWorker task = tasks.get(i);
+			nodes += task.nodes + task.playout.getNodes();
+			playouts += task.playout.getPlayouts();
+			maxDepth = Math.max(maxDepth, task.maxDepth);
+		}
+
+		int best = getMostVisited(0);
+		int[] pv = getPrincipalVariation(best);
+		int score = (int) Math.round(500.0 * wins.get(best) / Math.max(1, visits.get(best)));
+
+		SearchStats stats = new SearchStats(1, nodes, playouts, 0, 0, maxDepth, System.nanoTime() - start);
+		return new SearchResult(columns[best], score, pv.length, pv, stats);
+	}
+
+	/**
+	 * Run 'tasks' on the pool of this search and wait for all of them
+	 */
+	private void invokeAll(ArrayList<? extends RecursiveAction> tasks){
+
+		ParallelSearch.getPool(threads).invoke(new RecursiveAction(){
+			private static final long serialVersionUID = 1L;
+
+			protected void compute(){
+				invokeAll(tasks);
+			}
+		});
+	}
+
+	/**
+	 * Return the child of 'node' with the highest UCT score, children that were never visited go first
+	 * The counts can change while they are read, a slightly stale score only makes a slightly worse pick
+	 */
+	private int select(int node){
+
+		int first = firstChild.get(node);
+		int parentVisits = (node == 0) ? getRootVisits() : visits.get(node);
+		double logVisits = Math.log(Math.max(1, parentVisits));
+		int best = first;
+		double bestScore = Double.NEGATIVE_INFINITY;
+
+		for(int child = first; child < first + numChildren[node]; child++){
+			int n = visits.get(child);
+			if(n == 0){
+				return child;
+			}
+
+			double score = wins.get(child) / (2.0 * n) + exploration * Math.sqrt(logVisits / n);
+			if(score > bestScore){
+				best = child;
+				bestScore = score;
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Add a child for every available column of 'node' and return true, 'side' is the side to move
+	 * Return false if another thread is already expanding it or the tree is full
+	 */
+	private boolean expand(int node, Board board, int side){
+
+		if(size.get() + columnOrder.length > maxNodes || !firstChild.compareAndSet(node, -1, EXPANDING)){
+			return false;
+		}
+
+		int count = 0;
+		for(int col = 0; col < columnOrder.length; col++){
+			if(!board.isFull(col)){
+				count++;
+			}
+		}
+
+		int first = size.getAndAdd(count);
+		if(first + count > maxNodes){
+			// Leave the node as a leaf for good, the other threads will play out from it too
+			firstChild.set(node, EXPANDING);
+			return false;
+		}
+
+		int child = first;
+		for(int i = 0; i < columnOrder.length; i++){
+			int col = columnOrder[i];
+			if(board.isFull(col)){
+				continue;
+			}
+
+			clearNode(child, col);
+			board.addPiece(col, side);
+			if(board.hasWonAfter(col)){
+				results[child] = MonteCarlo.WIN;
+			} else if(board.isBoardFull()){
+				results[child] = MonteCarlo.DRAW;
+			}
+			board.removeSymbol(col);
+			child++;
+		}
+
+		// Publishing firstChild last makes the children visible to the threads that read it
+		numChildren[node] = (byte) count;
+		firstChild.set(node, first);
+		return true;
+	}
+
+	/**
+	 * Return the visits of the root, the sum of the visits of its children
+	 */
+	private int getRootVisits(){
+
+		int first = firstChild.get(0);
+		int sum = 0;
+		for(int child = first; child < first + numChildren[0]; child++){
+			sum += visits.get(child);
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Return the most visited child of 'node'
+	 */
+	private int getMostVisited(int node){
+
+		int first = firstChild.get(node);
+		int best = first;
+		for(int child = first; child < first + numChildren[node]; child++){
+			if(visits.get(child) > visits.get(best)){
+				best = child;
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Return the columns of the most visited line of the shared tree starting with the child 'node' of the root
+	 */
+	private int[] getPrincipalVariation(int node){
+
+		int length = 1;
+		for(int n = node; firstChild.get(n) >= 0; n = getMostVisited(n)){
+			length++;
+		}
+
+		int[] pv = new int[length];
+		int n = node;
+		for(int i = 0; i < length; i++){
+			pv[i] = columns[n];
+			if(firstChild.get(n) >= 0){
+				n = getMostVisited(n);
+			}
+		}
+
+		return pv;
+	}
+
+	/**
+	 * Make the shared tree the first time it is needed, it is the full size from the start since it cannot grow while threads use it
+	 */
+	private void prepare(Board board){
+
+		int columnSize = board.getColumnSize();
+		if(maxNodes < columnSize + 1) throw new Error("Monte Carlo tree is too small for this board");
+
+		if(firstChild == null){
+			firstChild = new AtomicIntegerArray(maxNodes);
+			numChildren = new byte[maxNodes];
+			columns = new byte[maxNodes];
+			results = new byte[maxNodes];
+			visits = new AtomicIntegerArray(maxNodes);
+			played = new AtomicIntegerArray(maxNodes);
+			wins = new AtomicLongArray(maxNodes);
+			size = new AtomicInteger();
+		}
+
+		if(columnOrder == null || columnOrder.length != columnSize){
+			columnOrder = MoveOrderer.getCenterOrder(columnSize);
+		}
+	}
+
+	/**
+	 * Reset 'node' as a new node reached by playing 'column', before any other thread can see it
+	 */
+	private void clearNode(int node, int column){
+		numChildren[node] = 0;
+		columns[node] = (byte) column;
+		results[node] = MonteCarlo.OPEN;
+		visits.set(node, 0);
+		played.set(node, 0);
+		wins.set(node, 0);
+		firstChild.set(node, -1);
+	}
+
+	/**
+	 * One independent tree of a root parallel search
+	 */
+	private static class RootTree extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private MonteCarlo tree;
+		private Board root;
+		private int side;
+		private long iterations;
+		private long millis;
+		private SearchResult result;
+
+		public RootTree(MonteCarlo _tree, Board _root, int _side, long _iterations, long _millis){
+			tree = _tree;
+			root = _root;
+			side = _side;
+			iterations = _iterations;
+			millis = _millis;
+		}
+
+		protected void compute(){
+
+			Board board = BoardPool.acquire(root);
+			result = tree.search(board, side, iterations, millis);
+			BoardPool.release(board);
+		}
+	}
+
+	/**
+	 * One thread of a tree parallel search, it runs its share of the iterations on the shared tree or until the deadline
+	 */
+	private class TreeWorker extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private Board root;
+		private int side;
+		private long iterations;
+		private long deadline;
+
+		private Playout playout;
+		private int[] path;
+		private long nodes;
+		private int maxDepth;
+
+		public TreeWorker(Board _root, int _side, long _iterations, long _deadline){
+			root = _root;
+			side = _side;
+			iterations = _iterations;
+			deadline = _deadline;
+			playout = new Playout(policy);
+			path = new int[_root.getRowSize() * _root.getColumnSize() + 1];
+		}
+
+		protected void compute(){
+
+			Board board = BoardPool.acquire(root);
+			for(long i = 0; ; i++){
+				if(iterations > 0 && i >= iterations){
+					break;
+				}
+				if((i & 15) == 0 && System.nanoTime() >= deadline){
+					break;
+				}
+
+				iterate(board);
+			}
+			BoardPool.release(board);
+		}
+
+		/**
+		 * One iteration on the shared tree, same steps as MonteCarlo with a virtual loss on the nodes walked through
+		 */
+		private void iterate(Board board){
+
+			int node = 0;
+			int depth = 0;
+			int toMove = side;
+			path[0] = 0;
+
+			while(firstChild.get(node) >= 0 && results[node] == MonteCarlo.OPEN){
+				node = select(node);
+				visits.addAndGet(node, VIRTUAL_LOSS);
+				board.addPiece(columns[node], toMove);
+				toMove = 1 - toMove;
+				path[++depth] = node;
+				nodes++;
+			}
+
+			// A leaf is expanded once a playout from it has finished, visits also hold the virtual losses of the threads still below it
+			if(results[node] == MonteCarlo.OPEN && (node == 0 || played.get(node) > 0) && expand(node, board, toMove)){
+				node = firstChild.get(node);
+				visits.addAndGet(node, VIRTUAL_LOSS);
+				board.addPiece(columns[node], toMove);
+				toMove = 1 - toMove;
+				path[++depth] = node;
+				nodes++;
+			}
+			maxDepth = Math.max(maxDepth, depth);
+
+			// Result in half points for the side that moved into the leaf, 2 for a win, 1 for a draw and 0 for a loss
+			int value;
+			if(results[node] == MonteCarlo.WIN){
+				value = 2;
+			} else if(results[node] == MonteCarlo.DRAW){
+				value = 1;
+			} else {
+				int winner = playout.play(board, toMove);
+				value = (winner == -1) ? 1 : (winner == toMove ? 0 : 2);
+			}
+
+			// Take back the virtual loss and add the real result, every level up is the other side's point of view
+			// The root keeps no counts, see getRootVisits()
+			for(int d = depth; d > 0; d--){
+				int n = path[d];
+				wins.addAndGet(n, value);
+				visits.addAndGet(n, 1 - VIRTUAL_LOSS);
+				played.incrementAndGet(n);
+				value = 2 - value;
+				board.removeSymbol(columns[n]);
+			}
+		}
+	}
+}
@@ -0,0 +1,33 @@
+
+/**
+ * Strategy of the "mcts-root" and "mcts-tree" Players: a ParallelMonteCarlo search with the iterations, time and threads of the SearchLimits
+ * The trees are kept from one move to the next so they are only allocated once
+ * @author Avery Swank
+ */
+public class ParallelMonteCarloStrategy implements Strategy {
+
+	private double exploration;
+	private int mode;
+	private ParallelMonteCarlo search;
+	private SearchStats lastStats;
+
+	public ParallelMonteCarloStrategy(double _exploration, int _mode){
+		exploration = _exploration;
+		mode = _mode;
+	}
+
+	public int chooseMove(Board board, int side, SearchLimits limits){
+
+		if(search == null){
+			search = new ParallelMonteCarlo(exploration, Playout.RANDOM, mode, limits.getThreads());
+		}
+		SearchResult result = search.search(board, side, limits.getIterations(), limits.getMillis());
+
+		lastStats = result.getStats();
+		return result.getColumn();
+	}
+
+	public SearchStats getLastStats(){
+		return lastStats;
+	}
+}
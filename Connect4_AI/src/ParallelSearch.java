@@ -0,0 +1,175 @@
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Alpha-beta search with the root moves split across threads of a ForkJoinPool
+ *
+ * Every root move is searched by its own worker on its own copy of the Board from the BoardPool, so the workers never race on one grid.
+ * The workers share two things:
+ *   - the best score found so far at the root, so a worker can prune moves that cannot beat it
+ *   - one TransTable, so positions searched by one worker are cutoffs for the others
+ * Every pool thread keeps one AlphaBeta for the life of this search, so its killer moves and history carry over from one root move
+ * and one search to the next
+ * @author Avery Swank
+ */
+public class ParallelSearch {
+
+	// One pool per thread count, kept for the life of the program so threads are not started on every move
+	private static final ConcurrentHashMap<Integer, ForkJoinPool> pools = new ConcurrentHashMap<Integer, ForkJoinPool>();
+
+	// Player searched for by search(board, depth)
+	private Player player;
+	private TransTable table;
+	private int threads;
+
+	// The AlphaBeta of each pool thread that ran a root move of this search
+	private ThreadLocal<AlphaBeta> workers;
+
+	public ParallelSearch(Player _player, TransTable _table, int _threads){
+
+		if(_threads < 1) throw new Error("Invalid number of threads");
+
+		player = _player;
+		table = _table;
+		threads = _threads;
+		workers = ThreadLocal.withInitial(() -> new AlphaBeta(table));
+	}
+
+	/**
+	 * Search for whichever side is passed to search(board, side, depth)
+	 */
+	public ParallelSearch(TransTable _table, int _threads){
+		this(null, _table, _threads);
+	}
+
+	/**
+	 * Return the number of threads the root moves are searched on
+	 */
+	public int getThreads(){
+		return threads;
+	}
+
+	/**
+	 * Search 'depth' plies ahead for 'player' and return the best column
+	 * 'player' has to have played on the board already, pass the side to search from an empty board
+	 */
+	public SearchResult search(Board board, int depth){
+		return search(board, board.getPlayedSide(player.getSymbol()), depth);
+	}
+
+	/**
+	 * Search 'depth' plies ahead for side 'side' (0 or 1) and return the best column
+	 */
+	public SearchResult search(Board board, int side, int depth){
+
+		if(depth < 1) throw new Error("Invalid search depth");
+		if(board.isBoardFull()) throw new Error("Cannot search a full board");
+
+		long start = System.nanoTime();
+		int[] moves = board.getAvailableColumns();
+		AtomicInteger alpha = new AtomicInteger(-AlphaBeta.INFINITY);
+
+		ArrayList<RootMove> tasks = new ArrayList<RootMove>();
+		for(int i = 0; i < moves.length; i++){
+			tasks.add(new RootMove(board, side, moves[i], depth, alpha));
+		}
+
+		getPool(threads).invoke(new RecursiveAction(){
+			private static final long serialVersionUID = 1L;
+
+			protected void compute(){
+				invokeAll(tasks);
+			}
+		});
+
+		// Pick the best root move in column order. Only exact scores count, a move that was pruned
+		// against the shared alpha may have tied the best score on paper while really being worse
+		RootMove best = null;
+		SearchStats workers = new SearchStats();
+		for(int i = 0; i < tasks.size(); i++){
+			RootMove task = tasks.get(i);
+			workers.add(task.stats);
+			if(task.exact && (best == null || task.score > best.score)){
+				best = task;
+			}
+		}
+
+		// One search from the root, one ply deeper than the workers
+		SearchStats stats = new SearchStats(1, workers.getNodes() + 1, workers.getLeafEvaluations(), workers.getBetaCutoffs(),
+											workers.getTTHits(), workers.getMaxDepth() + 1, System.nanoTime() - start);
+		return new SearchResult(best.column, best.score, depth, best.pv, stats);
+	}
+
+	/**
+	 * Return the pool of 'threads' threads, made the first time it is asked for and shared by every parallel search
+	 */
+	public static ForkJoinPool getPool(int threads){
+		return pools.computeIfAbsent(threads, n -> new ForkJoinPool(n));
+	}
+
+	/**
+	 * Search a single root move on a worker thread
+	 */
+	private class RootMove extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private Board root;
+		private int side;
+		private int column;
+		private int depth;
+		private AtomicInteger alpha;
+
+		private int score;
+		private boolean exact;
+		private SearchStats stats;
+		private int[] pv;
+
+		public RootMove(Board _root, int _side, int _column, int _depth, AtomicInteger _alpha){
+			root = _root;
+			side = _side;
+			column = _column;
+			depth = _depth;
+			alpha = _alpha;
+			score = -AlphaBeta.INFINITY;
+			exact = true;
+			stats = new SearchStats(1, 1, 0, 0, 0, 0, 0);
+			pv = new int[]{_column};
+		}
+
+		protected void compute(){
+
+			// The root board is only read while the workers run, each one plays on its own copy
+			Board board = BoardPool.acquire(root);
+			board.addPiece(column, side);
+			if(board.hasWonAfter(column)){
+				score = AlphaBeta.WIN_SCORE - board.getNumMoves();
+			} else if(board.isBoardFull()){
+				score = 0;
+			} else {
+				// Search from the opponent's point of view, a score at or below the best root score so far is only a bound
+				AlphaBeta worker = workers.get();
+				int bound = alpha.get();
+				score = -worker.searchWindow(board, 1 - side, depth - 1, -AlphaBeta.INFINITY, -bound);
+				exact = score > bound;
+				stats = worker.getStats();
+
+				int[] line = worker.getPrincipalVariation();
+				pv = new int[line.length + 1];
+				pv[0] = column;
+				for(int i = 0; i < line.length; i++){
+					pv[i + 1] = line[i];
+				}
+			}
+			BoardPool.release(board);
+
+			// Raise the shared alpha so workers that start later can prune more
+			int current = alpha.get();
+			while(score > current && !alpha.compareAndSet(current, score)){
+				current = alpha.get();
+			}
+		}
+	}
+}
@@ -0,0 +1,40 @@
+
+/**
+ * Strategy of the "parallel" Players: a ParallelSearch to the depth of the SearchLimits on its number of threads
+ * The workers of every move share one transposition table, and the search with the AlphaBeta of each worker is kept from one move to the next
+ * @author Avery Swank
+ */
+public class ParallelStrategy implements Strategy {
+
+	private TransTable table;
+	private ParallelSearch search;
+	private SearchStats lastStats;
+
+	public ParallelStrategy(){
+		this(new TransTable(TransTable.DEFAULT_SIZE_MB));
+	}
+
+	public ParallelStrategy(TransTable _table){
+		table = _table;
+	}
+
+	public int chooseMove(Board board, int side, SearchLimits limits){
+
+		if(limits.getDepth() < 1) throw new Error("Parallel alpha-beta needs a search depth");
+
+		SearchResult result = OpeningBook.probeDefault(board);
+		if(result == null){
+			if(search == null || search.getThreads() != limits.getThreads()){
+				search = new ParallelSearch(table, limits.getThreads());
+			}
+			result = search.search(board, side, limits.getDepth());
+		}
+
+		lastStats = result.getStats();
+		return result.getColumn();
+	}
+
+	public SearchStats getLastStats(){
+		return lastStats;
+	}
+}
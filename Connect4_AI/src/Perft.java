@@ -0,0 +1,145 @@
+
+/**
+ * Perft: count every legal sequence of moves to a given depth from a position
+ *
+ * Walks the whole game tree with only getAvailableColumns(), addPiece(), removeSymbol() and hasWonAfter(),
+ * so it checks the move generator against known counts and measures how fast the board can move pieces.
+ * A game ends at a Connect 4, so sequences that win are counted but not extended. Usage:
+ *   java Perft [depth] [moves] [-ignorewins] [-stringboard] [-size R C N]
+ *     depth         plies to search, default 8
+ *     moves         columns already played from the empty board, ie "3323", default empty
+ *     -ignorewins   keep playing after a Connect 4, counts every way to fill the columns
+ *     -stringboard  use the String grid Board instead of a BitBoard
+ *     -size R C N   R rows, C columns and connect N instead of 6 7 4, ie -size 8 9 5 (a WideBitBoard)
+ * @author Avery Swank
+ */
+public class Perft {
+
+	// Positions at each ply from the empty 6x7 board, sequences end at a Connect 4
+	private static final long[] REFERENCE = {
+		1L, 7L, 49L, 343L, 2401L, 16807L, 117649L, 823536L, 5673234L, 39394572L, 268031646L,
+	};
+
+	// Positions at each ply from the empty 6x7 board when wins are ignored
+	private static final long[] REFERENCE_IGNORE_WINS = {
+		1L, 7L, 49L, 343L, 2401L, 16807L, 117649L, 823536L, 5764458L, 40344150L, 282282042L, 1974069174L,
+	};
+
+	private boolean ignoreWins;
+	private long[] counts;
+
+	public Perft(boolean _ignoreWins){
+		ignoreWins = _ignoreWins;
+	}
+
+	public static void main(String[] args){
+
+		int depth = 8;
+		String moves = "";
+		boolean ignoreWins = false;
+		boolean stringBoard = false;
+		int rows = 6;
+		int columns = 7;
+		int connect = 4;
+
+		for(int i = 0; i < args.length; i++){
+			if(args[i].equals("-ignorewins")){
+				ignoreWins = true;
+			} else if(args[i].equals("-stringboard")){
+				stringBoard = true;
+			} else if(args[i].equals("-size")){
+				rows = Integer.parseInt(args[++i]);
+				columns = Integer.parseInt(args[++i]);
+				connect = Integer.parseInt(args[++i]);
+			} else if(i == 0){
+				depth = Integer.parseInt(args[i]);
+			} else {
+				moves = args[i];
+			}
+		}
+
+		Board board = stringBoard ? new Board(rows, columns, connect) : Board.create(rows, columns, connect);
+		for(int i = 0; i < moves.length(); i++){
+			board.addSymbol(moves.charAt(i) - '0', symbol(i));
+		}
+
+		Perft perft = new Perft(ignoreWins);
+		long start = System.nanoTime();
+		long[] counts = perft.count(board, depth);
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		// Only the empty standard board has reference counts
+		long[] reference = null;
+		if(moves.isEmpty() && board.getRowSize() == 6 && board.getColumnSize() == 7 && board.getConnectLength() == 4){
+			reference = ignoreWins ? REFERENCE_IGNORE_WINS : REFERENCE;
+		}
+
+		long total = 0;
+		boolean passed = true;
+		System.out.println(String.format("%5s %16s %16s", "Depth", "Positions", "Expected"));
+		for(int d = 0; d < counts.length; d++){
+			total += counts[d];
+
+			String expected = "";
+			if(reference != null && d < reference.length){
+				expected = Long.toString(reference[d]);
+				if(reference[d] != counts[d]){
+					expected += " MISMATCH";
+					passed = false;
+				}
+			}
+			System.out.println(String.format("%5d %16d %16s", d, counts[d], expected));
+		}
+
+		System.out.println("Total Nodes: " + total);
+		System.out.println("Time: " + String.format("%.3f", seconds) + "s");
+		System.out.println("Nodes per Second: " + (long) (total / seconds));
+		if(reference != null){
+			System.out.println(passed ? "Reference Counts: PASSED" : "Reference Counts: FAILED");
+		}
+	}
+
+	/**
+	 * Return the number of positions at each ply from 0 (the board itself) to 'depth'
+	 */
+	public long[] count(Board board, int depth){
+
+		if(depth < 0) throw new Error("Invalid perft depth");
+
+		counts = new long[depth + 1];
+		walk(board, depth, 0);
+		return counts;
+	}
+
+	/**
+	 * Count this position and every position below it
+	 */
+	private void walk(Board board, int depth, int ply){
+
+		counts[ply]++;
+		if(ply == depth){
+			return;
+		}
+
+		int[] moves = board.getAvailableColumns();
+		int side = board.getNumMoves() % 2;
+		for(int i = 0; i < moves.length; i++){
+			int col = moves[i];
+
+			board.addPiece(col, side);
+			if(ignoreWins || !board.hasWonAfter(col)){
+				walk(board, depth, ply + 1);
+			} else {
+				counts[ply + 1]++;
+			}
+			board.removeSymbol(col);
+		}
+	}
+
+	/**
+	 * Return the symbol of the player making move number 'move'
+	 */
+	private static String symbol(int move){
+		return (move % 2 == 0) ? "x" : "o";
+	}
+}
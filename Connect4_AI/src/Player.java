@@ -10,6 +10,10 @@ public class Player {
 	private String type;
 	private int winCount;
 	
+	// The type split up once, ie "parallel" and [8, 4] for "parallel:8:4"
+	private String typeName;
+	private int[] typeParameters;
+	
 	public Player(String _name, String _symbol, String _type) {
 		
 		if(_symbol.equals("") || _symbol.equals("e") || _symbol.equals("_")) throw new Error("Player cannot have an empty '', 'e', '_' symbol");
@@ -19,6 +23,17 @@ public class Player {
 		symbol = _symbol;
 		type = _type;
 		winCount = 0;
+		
+		String[] parts = type.split(":");
+		typeName = parts[0];
+		typeParameters = new int[parts.length - 1];
+		for(int i = 0; i < typeParameters.length; i++){
+			try{
+				typeParameters[i] = Integer.parseInt(parts[i + 1]);
+			} catch (NumberFormatException e) {
+				throw new Error("Invalid Player type parameter: " + type);
+			}
+		}
 	}
 	
 	/**
@@ -49,6 +64,33 @@ public class Player {
 		return type;
 	}
 	
+	/**
+	 * Return the Player type without its parameter ie "alphabeta" for "alphabeta:8"
+	 */
+	public String getTypeName(){
+		return typeName;
+	}
+	
+	/**
+	 * Return the integer parameter of the Player type ie 8 for "alphabeta:8"
+	 * Otherwise, return 'defaultValue' if the type has no parameter
+	 */
+	public int getTypeParameter(int defaultValue){
+		return getTypeParameter(0, defaultValue);
+	}
+	
+	/**
+	 * Return the integer parameter at 'index' of the Player type ie 4 for index 1 of "parallel:8:4"
+	 * Otherwise, return 'defaultValue' if the type does not have that many parameters
+	 */
+	public int getTypeParameter(int index, int defaultValue){
+		if(index >= typeParameters.length){
+			return defaultValue;
+		}
+		
+		return typeParameters[index];
+	}
+	
 	/**
 	 * Add a win to the Player's win count
 	 */
@@ -0,0 +1,110 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Plays a position out to the end of the game for the Monte Carlo searches and puts the board back after
+ * Each search thread needs its own Playout, it keeps the buffers and counts the work of that thread
+ * @author Avery Swank
+ */
+public class Playout {
+
+	// Playout policies: random moves, or Search.naive() moves (win if possible, otherwise block, otherwise random)
+	public static final int RANDOM = 0;
+	public static final int NAIVE = 1;
+
+	private int policy;
+	private int[] available;
+	private int[] moves;
+
+	// Playouts played and pieces added by them
+	private long playouts;
+	private long nodes;
+
+	public Playout(int _policy){
+
+		if(_policy != RANDOM && _policy != NAIVE) throw new Error("Invalid playout policy");
+
+		policy = _policy;
+		available = new int[0];
+		moves = new int[0];
+	}
+
+	/**
+	 * Play the game out from 'board' with side 'side' (0 or 1) to move, put the board back and return the winning side or -1 for a draw
+	 */
+	public int play(Board board, int side){
+
+		int cells = board.getRowSize() * board.getColumnSize();
+		if(moves.length < cells){
+			available = new int[board.getColumnSize()];
+			moves = new int[cells];
+		}
+
+		playouts++;
+		int count = 0;
+		int winner = -1;
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+
+		while(!board.isBoardFull()){
+			int size = board.getAvailableColumns(available);
+			int col = -1;
+
+			if(policy == NAIVE){
+				col = findWinningMove(board, side, size);
+				if(col == -1){
+					col = findWinningMove(board, 1 - side, size);
+				}
+			}
+			if(col == -1){
+				col = available[random.nextInt(size)];
+			}
+
+			board.addPiece(col, side);
+			moves[count++] = col;
+			if(board.hasWonAfter(col)){
+				winner = side;
+				break;
+			}
+			side = 1 - side;
+		}
+
+		nodes += count;
+		while(count > 0){
+			board.removeSymbol(moves[--count]);
+		}
+
+		return winner;
+	}
+
+	/**
+	 * Return the first of the 'size' available columns where 'side' wins right away, or -1 if there is none
+	 */
+	private int findWinningMove(Board board, int side, int size){
+
+		for(int i = 0; i < size; i++){
+			if(Search.isWinningMove(board, side, available[i])){
+				return available[i];
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Return the number of playouts since the last resetStats()
+	 */
+	public long getPlayouts(){
+		return playouts;
+	}
+
+	/**
+	 * Return the number of pieces added by the playouts since the last resetStats()
+	 */
+	public long getNodes(){
+		return nodes;
+	}
+
+	public void resetStats(){
+		playouts = 0;
+		nodes = 0;
+	}
+}
@@ -1,3 +1,7 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 /**
  * Main to run everything
@@ -10,7 +14,15 @@ public class Run {
 		// Connect 4 AI setup
 		int boardRowSize = 6;
 		int boardColumnSize = 7;
+		int connectLength = 4;
 		int gamesPerMatch = 100;
+		int threads = Runtime.getRuntime().availableProcessors();
+		
+		// Set to a file name to also save the results and search stats of every match, ie "results.csv" or "results.json"
+		String resultsFile = "";
+		
+		// Set to a file name to also append every game played to a binary game log, ie "games.log", see GameLog
+		String gameLogFile = "";
 		
 		// All the different types of players
 		// Can play against other players or their opponent for head-to-head matches
@@ -34,51 +46,59 @@ public class Run {
 		Player[] players = {pRandom, pNaive, pSimple, pHeuristic, pMinimax};
 		Player[] oppoennts = {oRandom, oNaive, oSimple, oHeuristic, oMinimax};
 		
-		// Set the board
-		Board connect4Board = new Board(boardRowSize, boardColumnSize);
-		
-		Game game;
-		Match match;
-
 		// Play a single match between two players
-		/*game = new Game(connect4Board, pHuman, pMinimax);
-		match = new Match(game, gamesPerMatch);
+		/*Board connect4Board = Board.create(boardRowSize, boardColumnSize, connectLength);
+		Game game = new Game(connect4Board, pHuman, pMinimax);
+		Match match = new Match(game, gamesPerMatch);
 		match.play();
-		System.out.println(match);
+		System.out.println(match);*/
 
-		pSimple.resetWinCount();
-		pHeuristic.resetWinCount();*/
+		// Every match is played at the same time, each game on its own board
+		Tournament tournament = new Tournament(boardRowSize, boardColumnSize, connectLength, threads);
 
 		// Play each type of player against each type of player
 		for(int i = 0; i < players.length; i++){
 			for(int j = i+1; j < players.length; j++){
-				Player player = players[i];
-				Player opponent = players[j];
+				tournament.addPairing(players[i], players[j], gamesPerMatch);
+			}
+		}
 
-				game = new Game(connect4Board, player, opponent);
-				match = new Match(game, gamesPerMatch);
-				match.play();
-				System.out.println(match);
+		// Play each type of player against a copy of itself
+		for(int i = 0; i < players.length; i++){
+			tournament.addPairing(players[i], oppoennts[i], gamesPerMatch);
+		}
 
-				player.resetWinCount();
-				opponent.resetWinCount();
-				game.getBoard().emptyBoard();
+		GameLog log = null;
+		if(!gameLogFile.isEmpty()){
+			try{
+				log = new GameLog(Paths.get(gameLogFile));
+			} catch (IOException e) {
+				throw new Error("Could not open " + gameLogFile, e);
 			}
+			tournament.setGameLog(log);
 		}
 
-		 // Play each type of player against a copy of itself
-		for(int i = 0; i < players.length; i++){
-			Player player = players[i];
-			Player opponent = oppoennts[i];
+		tournament.play();
 
-			game = new Game(connect4Board, player, opponent);
-			match = new Match(game, gamesPerMatch);
-			match.play();
-			System.out.println(match);
+		if(log != null){
+			try{
+				log.close();
+			} catch (IOException e) {
+				throw new Error("Could not write " + gameLogFile, e);
+			}
+		}
 
-			player.resetWinCount();
-			opponent.resetWinCount();
-			game.getBoard().emptyBoard();
+		for(int i = 0; i < tournament.getPairings().size(); i++){
+			System.out.println(tournament.getPairings().get(i));
+		}
+
+		if(!resultsFile.isEmpty()){
+			String results = resultsFile.endsWith(".json") ? tournament.toJson() : tournament.toCsv();
+			try{
+				Files.write(Paths.get(resultsFile), results.getBytes(StandardCharsets.UTF_8));
+			} catch (IOException e) {
+				throw new Error("Could not write " + resultsFile, e);
+			}
 		}
 		
 		System.out.println("Completed All Matches");
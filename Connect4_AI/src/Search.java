@@ -1,30 +1,44 @@
 import java.util.ArrayList;
 import java.util.Scanner;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * Class that contains all of the major search functions for a Connect4 AI:
+ * Class that contains all of the major search functions for a Connect4 AI.
+ * Each function looks up the side (0 or 1) of its Player once with Board.getPlayedSide() and plays pieces by side, see Board.addPiece().
+ * The lookup never gives a Player a side, so a Player that has not played yet has to be passed by side:
  * 	 - Search for winning scenarios
  * 	 - Human player moves with human input
  * 	 - Randomized and partially randomized searches
  * 	 - Tree searches
  *	 - Minimax
+ *	 - Alpha-beta pruning
  *	 - Multiple different heuristic functions 				
  * @author Avery Swank
  */
 public class Search {
 
+	// Weights of the heuristic functions, read once at startup, see HeuristicWeights
+	private static final HeuristicWeights WEIGHTS = HeuristicWeights.getDefault();
+
 	/**
 	 * Return true if placing a symbol at that column is a winning move. 
 	 * Otherwise, false.
 	 */
 	public static boolean isWinningMove(Board board, Player player, Player opponent, int col){
+		return isWinningMove(board, board.getPlayedSide(player.getSymbol()), col);
+	}
+	
+	/**
+	 * Return true if placing a piece of side 'side' at that column is a winning move. 
+	 * Otherwise, false.
+	 */
+	public static boolean isWinningMove(Board board, int side, int col){
 		
-		// Add the symbol and check if there is a Connect4
-		board.addSymbol(col, player.getSymbol());
-		String win = board.getConnect4(player, opponent);
-		boolean isWin = win.equals(player.getSymbol());
+		// Add the piece and check if it made a Connect4
+		board.addPiece(col, side);
+		boolean isWin = board.hasWonAfter(col);
 		
-		// Remove the symbol for consistency
+		// Remove the piece for consistency
 		board.removeSymbol(col);
 		
 		return isWin;
@@ -44,23 +58,44 @@ public class Search {
 	 * 
 	 * The goal of this is to award boards that build up better situations for a Connect 4
 	 * Weighted towards higher straights
+	 * 
+	 * An "n in a row" is a winning line of the board's LineTable holding n pieces of that player and none of the other.
+	 * The board keeps these counts up to date on every move, so this costs the same handful of reads in any position.
+	 * The board is only read, so 'player' has to have played on it already
 	 */
 	public static int getHeuristic(Board board, Player player, Player opponent){
+		return getHeuristic(board, board.getPlayedSide(player.getSymbol()));
+	}
+	
+	/**
+	 * Same as getHeuristic(board, player, opponent) for the player of side 'side' (0 or 1)
+	 */
+	public static int getHeuristic(Board board, int side){
+		return getHeuristic(board, side, WEIGHTS);
+	}
+	
+	/**
+	 * Same as getHeuristic(board, side) with the weights 'weights' instead of the ones loaded at startup
+	 */
+	public static int getHeuristic(Board board, int side, HeuristicWeights weights){
 
 		// Weights
-		int w4 = 10;
-		int w3 = 5;
-		int w2 = 3;
-		int w1 = 1;
+		int w4 = weights.getLineWeight(0);
+		int w3 = weights.getLineWeight(1);
+		int w2 = weights.getLineWeight(2);
+		int w1 = weights.getLineWeight(3);
 		
-		int player4 = board.getNumStraights(player.getSymbol(), 4);
-		int player3 = board.getNumStraights(player.getSymbol(), 3);
-		int player2 = board.getNumStraights(player.getSymbol(), 2);
-		int player1 = board.getNumStraights(player.getSymbol(), 1);
-		int opponent4 = board.getNumStraights(opponent.getSymbol(), 4);
-		int opponent3 = board.getNumStraights(opponent.getSymbol(), 3);
-		int opponent2 = board.getNumStraights(opponent.getSymbol(), 2);
-		int opponent1 = board.getNumStraights(opponent.getSymbol(), 1);
+		// Lines with 4, 3, 2 and 1 pieces on a Connect 4 board, the same distances from a win on a connect N board
+		int n = board.getConnectLength();
+		int other = 1 - side;
+		int player4 = getNumWindows(board, side, n);
+		int player3 = getNumWindows(board, side, n - 1);
+		int player2 = getNumWindows(board, side, n - 2);
+		int player1 = getNumWindows(board, side, n - 3);
+		int opponent4 = getNumWindows(board, other, n);
+		int opponent3 = getNumWindows(board, other, n - 1);
+		int opponent2 = getNumWindows(board, other, n - 2);
+		int opponent1 = getNumWindows(board, other, n - 3);
 
 		int playerHeuristic = (player4 * w4) + (player3 * w3) + (player2 * w2) + (player1 * w1);
 		int opponentHeuristic = (opponent4 * w4) + (opponent3 * w3) + (opponent2 * w2) + (opponent1 * w1);
@@ -74,15 +109,31 @@ public class Search {
 	 * Same concept as getHeuristic() but simplified to only straights of 2 and 3 for sake of increased speed
 	 */
 	public static int getSimpleHeuristic(Board board, Player player, Player opponent){
+		return getSimpleHeuristic(board, board.getPlayedSide(player.getSymbol()));
+	}
+	
+	/**
+	 * Same as getSimpleHeuristic(board, player, opponent) for the player of side 'side' (0 or 1)
+	 */
+	public static int getSimpleHeuristic(Board board, int side){
+		return getSimpleHeuristic(board, side, WEIGHTS);
+	}
+	
+	/**
+	 * Same as getSimpleHeuristic(board, side) with the weights 'weights' instead of the ones loaded at startup
+	 */
+	public static int getSimpleHeuristic(Board board, int side, HeuristicWeights weights){
 
 		// Weights
-		int w3 = 5;
-		int w2 = 3;
+		int w3 = weights.getSimpleWeight(1);
+		int w2 = weights.getSimpleWeight(2);
 		
-		int player3 = board.getNumStraights(player.getSymbol(), 3);
-		int player2 = board.getNumStraights(player.getSymbol(), 2);
-		int opponent3 = board.getNumStraights(opponent.getSymbol(), 3);
-		int opponent2 = board.getNumStraights(opponent.getSymbol(), 2);
+		int n = board.getConnectLength();
+		int other = 1 - side;
+		int player3 = getNumWindows(board, side, n - 1);
+		int player2 = getNumWindows(board, side, n - 2);
+		int opponent3 = getNumWindows(board, other, n - 1);
+		int opponent2 = getNumWindows(board, other, n - 2);
 
 		int playerHeuristic = (player3 * w3) + (player2 * w2);
 		int opponentHeuristic = (opponent3 * w3) + (opponent2 * w2);
@@ -90,6 +141,13 @@ public class Search {
 		return heuristic;
 	}
 	
+	/**
+	 * Return board.getNumWindows(side, pieces), or 0 for pieces under 1 on boards with a connect length under 4
+	 */
+	private static int getNumWindows(Board board, int side, int pieces){
+		return (pieces < 1) ? 0 : board.getNumWindows(side, pieces);
+	}
+	
 	/**
 	 * Play a move based on human player input
 	 * Use scanf to pick up the human player's inputs
@@ -115,10 +173,11 @@ public class Search {
 	
 	/**
 	 * Make a random move on an available Connect4 column
+	 * Each thread has its own random number generator so parallel games do not wait on each other
 	 */
 	public static int random(Board board){
-		int randIndex = (int) Math.floor(Math.random() * board.getAvailableColumns().length);
 		int availableCol[] = board.getAvailableColumns();
+		int randIndex = ThreadLocalRandom.current().nextInt(availableCol.length);
 		return availableCol[randIndex];
 	}
 	
@@ -128,6 +187,13 @@ public class Search {
 	 * Otherwise, make a random move
 	 */
 	public static int naive(Board board, Player player, Player opponent){
+		return naive(board, board.getPlayedSide(player.getSymbol()));
+	}
+	
+	/**
+	 * Same as naive(board, player, opponent) for side 'side' (0 or 1)
+	 */
+	public static int naive(Board board, int side){
 		
 		int[] moves = board.getAvailableColumns();
 		
@@ -135,7 +201,7 @@ public class Search {
 		for(int i = 0; i < moves.length; i++){
 			int col = moves[i];
 			
-			if(isWinningMove(board, player, opponent, col)){
+			if(isWinningMove(board, side, col)){
 				return col;
 			}
 		}
@@ -144,7 +210,7 @@ public class Search {
 		for(int i = 0; i < moves.length; i++){
 			int col = moves[i];
 			
-			if(isWinningMove(board, opponent, player, col)){
+			if(isWinningMove(board, 1 - side, col)){
 				return col;
 			}
 		}
@@ -158,6 +224,13 @@ public class Search {
 	 * Except instead of a random move, pick the immediate move with the highest heuristic 
 	 */
 	public static int simple(Board board, Player player, Player opponent){
+		return simple(board, board.getPlayedSide(player.getSymbol()));
+	}
+	
+	/**
+	 * Same as simple(board, player, opponent) for side 'side' (0 or 1)
+	 */
+	public static int simple(Board board, int side){
 		
 		int[] moves = board.getAvailableColumns();
 		
@@ -165,7 +238,7 @@ public class Search {
 		for(int i = 0; i < moves.length; i++){
 			int col = moves[i];
 			
-			if(isWinningMove(board, player, opponent, col)){
+			if(isWinningMove(board, side, col)){
 				return col;
 			}
 		}
@@ -174,13 +247,13 @@ public class Search {
 		for(int i = 0; i < moves.length; i++){
 			int col = moves[i];
 			
-			if(isWinningMove(board, opponent, player, col)){
+			if(isWinningMove(board, 1 - side, col)){
 				return col;
 			}
 		}
 		
 		// Otherwise, pick colun with highest heuristic		
-		int bestCol = nextBestMove(board, player, opponent);
+		int bestCol = nextBestMove(board, side);
 		return bestCol;
 	}
 	
@@ -189,17 +262,36 @@ public class Search {
 	 * Move only based on the next set of immediate moves ie greedy best choice
 	 */
 	public static int nextBestMove(Board board, Player player, Player opponent){
+		return nextBestMove(board, board.getPlayedSide(player.getSymbol()));
+	}
+	
+	/**
+	 * Same as nextBestMove(board, player, opponent) for side 'side' (0 or 1)
+	 */
+	public static int nextBestMove(Board board, int side){
 		
 		int[] moves = board.getAvailableColumns();
+		int[] heuristics = new int[moves.length];
+		
+		if(BatchEvaluator.supports(board)){
+			// Score every move at once without playing them, same scores as getHeuristic()
+			BatchEvaluator evaluator = BatchEvaluator.get(board.getRowSize(), board.getColumnSize(), board.getConnectLength());
+			long[] positions = new long[2 * moves.length];
+			evaluator.encodeChildren(board, side, positions, 0);
+			evaluator.evaluate(positions, heuristics);
+		} else {
+			for(int i = 0; i < moves.length; i++){
+				board.addPiece(moves[i], side);
+				heuristics[i] = getHeuristic(board, side);
+				board.removeSymbol(moves[i]);
+			}
+		}
 
 		int minHeuristic = -1000;
 		int highestCol = moves[0];
 		for(int i = 0; i < moves.length; i++){
 			int col = moves[i];
-			
-			board.addSymbol(col, player.getSymbol());
-			int currHeuristic = getHeuristic(board, player, opponent);
-			board.removeSymbol(col);
+			int currHeuristic = heuristics[i];
 			
 			if(currHeuristic > minHeuristic){
 				highestCol = col;
@@ -218,9 +310,40 @@ public class Search {
 	 * 				Searches at a depth of 3. (TODO: Adjust for any number of depth)
 	 */
 	public static int minimax(Board board, Player player, Player opponent){
+		return minimax(board, board.getPlayedSide(player.getSymbol()));
+	}
+	
+	/**
+	 * Same as minimax(board, player, opponent) for side 'side' (0 or 1)
+	 */
+	public static int minimax(Board board, int side){
+		return minimax(board, side, WEIGHTS);
+	}
+	
+	/**
+	 * Same as minimax(board, side) scoring the leaves with the simple weights of 'weights'
+	 */
+	public static int minimax(Board board, int side, HeuristicWeights weights){
+		
+		BatchEvaluator evaluator = null;
+		if(BatchEvaluator.supports(board)){
+			evaluator = (weights == WEIGHTS) ? BatchEvaluator.getSimple(board.getRowSize(), board.getColumnSize(), board.getConnectLength())
+											 : new BatchEvaluator(board.getRowSize(), board.getColumnSize(), board.getConnectLength(), weights.getSimpleWeights());
+		}
+		
+		return minimax(board, side, weights, evaluator);
+	}
+	
+	/**
+	 * Same as minimax(board, side, weights) with the leaves of a BitBoard scored by 'evaluator', which has to be made
+	 * with the simple weights of 'weights' for the size of the board. Callers that play many moves with the same weights
+	 * keep one evaluator instead of making one every move. Pass null to score every leaf on the board
+	 */
+	public static int minimax(Board board, int side, HeuristicWeights weights, BatchEvaluator evaluator){
 		
 		int[] firstMoves = board.getAvailableColumns();
 		int[] heuristics = new int[firstMoves.length];
+		int other = 1 - side;
 		
 		for(int i = 0; i < heuristics.length; i++){
 			heuristics[i] = 0;
@@ -230,7 +353,7 @@ public class Search {
 		for(int i = 0; i < firstMoves.length; i++){
 			int col = firstMoves[i];
 			
-			if(isWinningMove(board, player, opponent, col)){
+			if(isWinningMove(board, side, col)){
 				return col;
 			}
 		}
@@ -240,28 +363,54 @@ public class Search {
 		//
 		// It is important to note if the opponent is rational, then they will block any winning move on the third turn in the second turn
 		// This has to be best calcualted with a heuristic, not a 'is win' situation
+		//
+		// On a BitBoard the third moves are not played, all of them after each first move are scored in one batch
+		long[] positions = null;
+		int[] scores = null;
+		if(!BatchEvaluator.supports(board)){
+			evaluator = null;
+		}
+		if(evaluator != null){
+			int columns = board.getColumnSize();
+			positions = new long[2 * columns * columns];
+			scores = new int[columns * columns];
+		}
+		
 		for(int i = 0; i < firstMoves.length; i++){
 			
 			int firstCol = firstMoves[i];
-			board.addSymbol(firstCol, player.getSymbol());
+			board.addPiece(firstCol, side);
 			int[] secondMoves = board.getAvailableColumns();
+			int count = 0;
 			
 			for(int j = 0; j < secondMoves.length; j++){
 				
 				int secondCol = secondMoves[j];
-				board.addSymbol(secondCol, opponent.getSymbol());
-				int[] thirdMoves = board.getAvailableColumns();
+				board.addPiece(secondCol, other);
 				
-				for(int k = 0; k < thirdMoves.length; k++){
+				if(evaluator != null){
+					count += evaluator.encodeChildren(board, side, positions, count);
+				} else {
+					int[] thirdMoves = board.getAvailableColumns();
 					
-					int thirdCol = thirdMoves[k];
-					board.addSymbol(thirdCol, player.getSymbol());
-					heuristics[i] += getSimpleHeuristic(board, player, opponent);
-					board.removeSymbol(thirdCol);
-				}	
+					for(int k = 0; k < thirdMoves.length; k++){
+						
+						int thirdCol = thirdMoves[k];
+						board.addPiece(thirdCol, side);
+						heuristics[i] += getSimpleHeuristic(board, side, weights);
+						board.removeSymbol(thirdCol);
+					}
+				}
 				board.removeSymbol(secondCol);
 			}	
 			board.removeSymbol(firstCol);
+			
+			if(evaluator != null){
+				evaluator.evaluate(positions, count, scores);
+				for(int k = 0; k < count; k++){
+					heuristics[i] += scores[k];
+				}
+			}
 		}
 		
 		// Return the first move that leads to the situations with the highest combined heuristics
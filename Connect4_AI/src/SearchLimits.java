@@ -0,0 +1,65 @@
+
+/**
+ * How far a Strategy may search for one move: a depth in plies, a time budget in milliseconds, the threads to use
+ * and a number of iterations for the Monte Carlo searches
+ * A depth, time or number of iterations of 0 means no limit of that kind, each Strategy says which limits it needs
+ * @author Avery Swank
+ */
+public class SearchLimits {
+
+	public static final SearchLimits NONE = new SearchLimits(0, 0, 1, 0);
+
+	private int depth;
+	private long millis;
+	private int threads;
+	private long iterations;
+
+	public SearchLimits(int _depth, long _millis, int _threads){
+		this(_depth, _millis, _threads, 0);
+	}
+
+	public SearchLimits(int _depth, long _millis, int _threads, long _iterations){
+
+		if(_depth < 0) throw new Error("Invalid search depth");
+		if(_millis < 0) throw new Error("Invalid search time");
+		if(_threads < 1) throw new Error("Invalid number of threads");
+		if(_iterations < 0) throw new Error("Invalid number of iterations");
+
+		depth = _depth;
+		millis = _millis;
+		threads = _threads;
+		iterations = _iterations;
+	}
+
+	/**
+	 * Return the number of plies to search, 0 if there is no depth limit
+	 */
+	public int getDepth(){
+		return depth;
+	}
+
+	/**
+	 * Return the time to search each move in milliseconds, 0 if there is no time limit
+	 */
+	public long getMillis(){
+		return millis;
+	}
+
+	/**
+	 * Return the number of threads to search on
+	 */
+	public int getThreads(){
+		return threads;
+	}
+
+	/**
+	 * Return the number of iterations to run, 0 if there is no iteration limit
+	 */
+	public long getIterations(){
+		return iterations;
+	}
+
+	public String toString(){
+		return "Depth: " + depth + " Millis: " + millis + " Threads: " + threads + " Iterations: " + iterations;
+	}
+}
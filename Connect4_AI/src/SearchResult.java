@@ -0,0 +1,73 @@
+
+/**
+ * Result of a single search: the column to play, its score and how much work it took to find it
+ * @author Avery Swank
+ */
+public class SearchResult {
+
+	private int column;
+	private int score;
+	private int depth;
+	private int[] pv;
+	private SearchStats stats;
+
+	public SearchResult(int _column, int _score, int _depth, int[] _pv, SearchStats _stats){
+		column = _column;
+		score = _score;
+		depth = _depth;
+		pv = _pv;
+		stats = _stats;
+	}
+
+	/**
+	 * Return the best column found by the search
+	 */
+	public int getColumn(){
+		return column;
+	}
+
+	/**
+	 * Return the score of the best column from the searching player's point of view
+	 */
+	public int getScore(){
+		return score;
+	}
+
+	/**
+	 * Return the depth in plies that was searched
+	 */
+	public int getDepth(){
+		return depth;
+	}
+
+	/**
+	 * Return the number of positions visited
+	 */
+	public long getNodes(){
+		return stats.getNodes();
+	}
+
+	/**
+	 * Return the principal variation, the columns both players are expected to play starting with getColumn()
+	 */
+	public int[] getPrincipalVariation(){
+		return pv;
+	}
+
+	/**
+	 * Return the work it took to find the column
+	 */
+	public SearchStats getStats(){
+		return stats;
+	}
+
+	public String toString(){
+		String s = "Column: " + column + " Score: " + score + " Depth: " + depth + " Nodes: " + getNodes() + " PV: [";
+		for(int i = 0; i < pv.length; i++){
+			s += pv[i] + (i < pv.length - 1 ? " " : "");
+		}
+		s += "]";
+
+		return s;
+	}
+}
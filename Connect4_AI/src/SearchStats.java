@@ -0,0 +1,148 @@
+
+/**
+ * How much work one or more searches took: positions visited, heuristic evaluations, cutoffs,
+ * transposition table hits, the deepest ply reached and the time spent
+ *
+ * Every search returns one for each move it picks, and Game adds them up per Player so a Match can report
+ * the cost per decision of each strategy alongside its wins
+ * @author Avery Swank
+ */
+public class SearchStats {
+
+	public static final String CSV_HEADER = "searches,nodes,leafEvaluations,betaCutoffs,ttHits,maxDepth,wallMillis";
+
+	private long searches;
+	private long nodes;
+	private long leafEvaluations;
+	private long betaCutoffs;
+	private long ttHits;
+	private int maxDepth;
+	private long wallNanos;
+
+	public SearchStats(){
+		this(0, 0, 0, 0, 0, 0, 0);
+	}
+
+	public SearchStats(long _searches, long _nodes, long _leafEvaluations, long _betaCutoffs, long _ttHits, int _maxDepth, long _wallNanos){
+		searches = _searches;
+		nodes = _nodes;
+		leafEvaluations = _leafEvaluations;
+		betaCutoffs = _betaCutoffs;
+		ttHits = _ttHits;
+		maxDepth = _maxDepth;
+		wallNanos = _wallNanos;
+	}
+
+	/**
+	 * Add the work of 'other' to these stats
+	 * Synchronized so the batches of a Tournament can add to the same stats from different threads
+	 */
+	public synchronized void add(SearchStats other){
+		searches += other.searches;
+		nodes += other.nodes;
+		leafEvaluations += other.leafEvaluations;
+		betaCutoffs += other.betaCutoffs;
+		ttHits += other.ttHits;
+		maxDepth = Math.max(maxDepth, other.maxDepth);
+		wallNanos += other.wallNanos;
+	}
+
+	/**
+	 * Return the number of searches, ie moves picked
+	 */
+	public long getSearches(){
+		return searches;
+	}
+
+	/**
+	 * Return the number of positions visited
+	 */
+	public long getNodes(){
+		return nodes;
+	}
+
+	/**
+	 * Return the number of times a heuristic was calculated
+	 */
+	public long getLeafEvaluations(){
+		return leafEvaluations;
+	}
+
+	/**
+	 * Return the number of times a position stopped being searched because the opponent would never allow it
+	 */
+	public long getBetaCutoffs(){
+		return betaCutoffs;
+	}
+
+	/**
+	 * Return the number of positions found in a transposition table
+	 */
+	public long getTTHits(){
+		return ttHits;
+	}
+
+	/**
+	 * Return the deepest ply reached
+	 */
+	public int getMaxDepth(){
+		return maxDepth;
+	}
+
+	/**
+	 * Return the total time spent searching in nanoseconds
+	 */
+	public long getWallNanos(){
+		return wallNanos;
+	}
+
+	/**
+	 * Return the average number of positions visited per search
+	 */
+	public double getAverageNodes(){
+		return (double) nodes / searches;
+	}
+
+	/**
+	 * Return the average time per search in milliseconds
+	 */
+	public double getAverageMillis(){
+		return wallNanos / 1e6 / searches;
+	}
+
+	/**
+	 * Return the stats as a CSV row, in the columns of CSV_HEADER
+	 */
+	public String toCsv(){
+		return searches + "," + nodes + "," + leafEvaluations + "," + betaCutoffs + "," + ttHits + "," + maxDepth + "," + (wallNanos / 1e6);
+	}
+
+	/**
+	 * Return the stats as a JSON object
+	 */
+	public String toJson(){
+		String s = "{";
+		s += "\"searches\": " + searches + ", ";
+		s += "\"nodes\": " + nodes + ", ";
+		s += "\"leafEvaluations\": " + leafEvaluations + ", ";
+		s += "\"betaCutoffs\": " + betaCutoffs + ", ";
+		s += "\"ttHits\": " + ttHits + ", ";
+		s += "\"maxDepth\": " + maxDepth + ", ";
+		s += "\"wallMillis\": " + (wallNanos / 1e6);
+		s += "}";
+
+		return s;
+	}
+
+	public String toString(){
+		String s = "Moves Searched: " + searches + '\n';
+		s += "Average Nodes per Move: " + getAverageNodes() + '\n';
+		s += "Leaf Evaluations: " + leafEvaluations + '\n';
+		s += "Beta Cutoffs: " + betaCutoffs + '\n';
+		s += "Transposition Hits: " + ttHits + '\n';
+		s += "Max Depth: " + maxDepth + '\n';
+		s += "Average Time per Move (ms): " + getAverageMillis();
+
+		return s;
+	}
+}
@@ -0,0 +1,431 @@
+/**
+ * Perfect play solver: finds the game-theoretic value of a position, not a heuristic guess
+ *
+ * The score of a position is from the point of view of the player to move:
+ *   - positive if they can force a win, the sooner the win the higher the score
+ *   - negative if the opponent can force a win, the later the loss the higher the score
+ *   - 0 if both players can force at least a draw
+ * The score is the number of cells the winner leaves empty plus one, halved, so it says how far away the end is,
+ * see getPliesToEnd().
+ *
+ * The search runs on two longs, the pieces of the player to move and every piece on the board, in the same layout
+ * as BitBoard. Swapping the player to move is an XOR, so a move never touches anything but the arguments of negamax():
+ *   - null-window searches narrow the range of possible scores until only one is left
+ *   - moves that hand the opponent a win are never searched, and a player facing two threats has already lost
+ *   - moves that make the most new threats are searched first, starting from the center
+ *   - upper and lower bounds found for every position are kept in a TransTable, shared with its mirror image
+ * @author Avery Swank
+ */
+public class Solver {
+
+	public static final int DEFAULT_SIZE_MB = 64;
+
+	private int rowSize;
+	private int columnSize;
+	private int columnBits;
+	private int cells;
+
+	// Bottom cell of every column and every playable cell of the board
+	private long bottomMask;
+	private long boardMask;
+
+	// Columns from the center out
+	private int[] columnOrder;
+
+	private TransTable table;
+
+	// Moves being sorted at each number of pieces on the board, see negamax()
+	private long[][] sortedMoves;
+	private int[][] sortedScores;
+
+	// Work done since the last call to resetStats()
+	private long nodes;
+	private long betaCutoffs;
+	private long ttHits;
+	private int maxDepth;
+	private int rootMoves;
+	private long startNanos;
+
+	// Default Game Board is 6 rows * 7 columns
+	public Solver(){
+		this(6, 7, new TransTable(DEFAULT_SIZE_MB));
+	}
+
+	public Solver(int _rowSize, int _columnSize, TransTable _table){
+
+		if((_rowSize + 1) * _columnSize > 64) throw new Error("Board is too large for the Solver");
+
+		rowSize = _rowSize;
+		columnSize = _columnSize;
+		columnBits = _rowSize + 1;
+		cells = _rowSize * _columnSize;
+		table = _table;
+
+		bottomMask = 0L;
+		for(int col = 0; col < columnSize; col++){
+			bottomMask |= 1L << (col * columnBits);
+		}
+		boardMask = bottomMask * ((1L << rowSize) - 1);
+
+		columnOrder = MoveOrderer.getCenterOrder(columnSize);
+
+		sortedMoves = new long[cells + 1][columnSize];
+		sortedScores = new int[cells + 1][columnSize];
+	}
+
+	/**
+	 * Return true if this solver was made for a board of the same size as 'board'
+	 */
+	public boolean fits(Board board){
+		return board.getRowSize() == rowSize && board.getColumnSize() == columnSize && board.getConnectLength() == 4;
+	}
+
+	/**
+	 * Return true if a Solver can be made for 'board': a Connect 4 board that fits in one long
+	 */
+	public static boolean supports(Board board){
+		return board.getConnectLength() == 4 && (board.getRowSize() + 1) * board.getColumnSize() <= 64;
+	}
+
+	/**
+	 * Return the score of 'board' for 'player', who must be the player to move and have played on the board already
+	 */
+	public int solve(Board board, Player player){
+		return solve(board, player, false);
+	}
+
+	/**
+	 * Return the score of 'board' for 'player', who must be the player to move and have played on the board already
+	 * A weak solve only returns 1 for a win, -1 for a loss and 0 for a draw, which is much faster
+	 */
+	public int solve(Board board, Player player, boolean weak){
+		return solve(board, board.getPlayedSide(player.getSymbol()), weak);
+	}
+
+	/**
+	 * Same as solve(board, player, weak) for side 'side' (0 or 1)
+	 */
+	public int solve(Board board, int side, boolean weak){
+
+		if(!fits(board)) throw new Error("The Solver was made for a different board size");
+
+		resetStats(board.getNumMoves());
+		long current = getBits(board, side);
+		long mask = getBits(board, -1);
+		return solve(current, mask, board.getNumMoves(), weak);
+	}
+
+	/**
+	 * Return the column with the best score for 'player', who must be the player to move and have played on the board already
+	 * Every column is solved, so the result says how the game ends with perfect play from here
+	 */
+	public SearchResult bestMove(Board board, Player player){
+		return bestMove(board, board.getPlayedSide(player.getSymbol()));
+	}
+
+	/**
+	 * Same as bestMove(board, player) for side 'side' (0 or 1)
+	 */
+	public SearchResult bestMove(Board board, int side){
+
+		if(!fits(board)) throw new Error("The Solver was made for a different board size");
+
+		int moves = board.getNumMoves();
+		resetStats(moves);
+		long current = getBits(board, side);
+		long mask = getBits(board, -1);
+
+		// Nothing beats winning right away
+		long wins = getWinningCells(current, mask) & getPlayableCells(mask);
+		for(int i = 0; i < columnSize && wins != 0; i++){
+			int col = columnOrder[i];
+			if((wins & getColumnMask(col)) != 0){
+				int score = (cells + 1 - moves) / 2;
+				return new SearchResult(col, score, getPliesToEnd(score, moves), new int[]{col}, getStats());
+			}
+		}
+
+		int bestCol = -1;
+		int bestScore = -cells;
+		for(int i = 0; i < columnSize; i++){
+			int col = columnOrder[i];
+			long move = getPlayableCells(mask) & getColumnMask(col);
+			if(move == 0){
+				continue;
+			}
+
+			int score = -solve(current ^ mask, mask | move, moves + 1, false);
+
+			if(bestCol == -1 || score > bestScore){
+				bestCol = col;
+				bestScore = score;
+			}
+		}
+
+		return new SearchResult(bestCol, bestScore, getPliesToEnd(bestScore, moves), new int[]{bestCol}, getStats());
+	}
+
+	/**
+	 * Return how many more pieces are played before the game ends when a position with 'moves' pieces
+	 * has the score 'score', or the number of empty cells if it is a draw
+	 */
+	public int getPliesToEnd(int score, int moves){
+
+		if(score > 0){
+			return cells + 1 - 2 * score + moves % 2 - moves;
+		}
+		if(score < 0){
+			return cells + 2 + 2 * score - moves % 2 - moves;
+		}
+
+		return cells - moves;
+	}
+
+	/**
+	 * Return the work done by the last solve() or bestMove()
+	 */
+	public SearchStats getStats(){
+		return new SearchStats(1, nodes, 0, betaCutoffs, ttHits, maxDepth, System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * Forget every position solved so far
+	 */
+	public void clear(){
+		table.clear();
+	}
+
+	private void resetStats(int moves){
+		nodes = 0;
+		betaCutoffs = 0;
+		ttHits = 0;
+		maxDepth = 0;
+		rootMoves = moves;
+		startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Narrow the range of possible scores with null-window searches until only one is left
+	 * Each search only answers "is the score above 'med'?", which prunes far more than a search with a wide window
+	 */
+	private int solve(long current, long mask, int moves, boolean weak){
+
+		if((getWinningCells(current, mask) & getPlayableCells(mask)) != 0){
+			return weak ? 1 : (cells + 1 - moves) / 2;
+		}
+
+		int min = -(cells - moves) / 2;
+		int max = (cells + 1 - moves) / 2;
+		if(weak){
+			min = -1;
+			max = 1;
+		}
+
+		while(min < max){
+
+			// Try the middle, but lean toward 0 first since wins and losses far away are easier to rule out
+			int med = min + (max - min) / 2;
+			if(med <= 0 && min / 2 < med){
+				med = min / 2;
+			} else if(med >= 0 && max / 2 > med){
+				med = max / 2;
+			}
+
+			int score = negamax(current, mask, moves, med, med + 1);
+			if(score <= med){
+				max = score;
+			} else {
+				min = score;
+			}
+		}
+
+		// A weak solve can still find the exact score when a search fails far outside its window
+		return weak ? Integer.signum(min) : min;
+	}
+
+	/**
+	 * Return the score of the position if it is in (alpha, beta), otherwise a bound on the score beyond the window
+	 * The player to move can never win immediately here, solve() and the move filter below check that first
+	 */
+	private int negamax(long current, long mask, int moves, int alpha, int beta){
+
+		nodes++;
+		maxDepth = Math.max(maxDepth, moves - rootMoves);
+
+		// Every move either loses immediately or leaves a win for the opponent
+		long next = getNonLosingMoves(current, mask);
+		if(next == 0){
+			return -(cells - moves) / 2;
+		}
+
+		// Neither player can win with the last two pieces
+		if(moves >= cells - 2){
+			return 0;
+		}
+
+		// The opponent cannot win on their next move, so the lowest possible score is a loss after that
+		int min = -(cells - 2 - moves) / 2;
+		if(alpha < min){
+			alpha = min;
+			if(alpha >= beta){
+				return alpha;
+			}
+		}
+
+		// The player to move cannot win on this move, so the highest possible score is a win on their next one
+		int max = (cells - 1 - moves) / 2;
+		long key = getKey(current, mask);
+		long data = table.probe(key);
+		if(data != 0){
+			ttHits++;
+			if(TransTable.getBound(data) == TransTable.LOWER){
+				min = TransTable.getScore(data);
+				if(alpha < min){
+					alpha = min;
+					if(alpha >= beta){
+						return alpha;
+					}
+				}
+			} else {
+				max = TransTable.getScore(data);
+			}
+		}
+		if(beta > max){
+			beta = max;
+			if(alpha >= beta){
+				return beta;
+			}
+		}
+
+		// Sort the moves by how many winning cells they make, ties keep the center first
+		long[] sorted = sortedMoves[moves];
+		int[] scores = sortedScores[moves];
+		int count = 0;
+		for(int i = 0; i < columnSize; i++){
+			long move = next & getColumnMask(columnOrder[i]);
+			if(move == 0){
+				continue;
+			}
+
+			int score = Long.bitCount(getWinningCells(current | move, mask));
+			int j = count++;
+			while(j > 0 && scores[j - 1] < score){
+				sorted[j] = sorted[j - 1];
+				scores[j] = scores[j - 1];
+				j--;
+			}
+			sorted[j] = move;
+			scores[j] = score;
+		}
+
+		for(int i = 0; i < count; i++){
+			long move = sorted[i];
+
+			int score = -negamax(current ^ mask, mask | move, moves + 1, -beta, -alpha);
+			if(score >= beta){
+				betaCutoffs++;
+				table.store(key, cells - moves, TransTable.LOWER, score, -1);
+				return score;
+			}
+			if(score > alpha){
+				alpha = score;
+			}
+		}
+
+		table.store(key, cells - moves, TransTable.UPPER, alpha, -1);
+		return alpha;
+	}
+
+	/**
+	 * Return the playable moves that do not give the opponent a win on their next move
+	 * If the opponent threatens to win, the only move left is to block, and two threats cannot both be blocked
+	 */
+	private long getNonLosingMoves(long current, long mask){
+
+		long possible = getPlayableCells(mask);
+		long opponentWins = getWinningCells(current ^ mask, mask);
+		long forced = possible & opponentWins;
+		if(forced != 0){
+			if((forced & (forced - 1)) != 0){
+				return 0;
+			}
+			possible = forced;
+		}
+
+		// Never play right below a cell the opponent wins with
+		return possible & ~(opponentWins >>> 1);
+	}
+
+	/**
+	 * Return the cell each column would be played at, ie the bit above the top piece
+	 */
+	private long getPlayableCells(long mask){
+		return (mask + bottomMask) & boardMask;
+	}
+
+	/**
+	 * Return every empty cell, playable or not, that would complete a Connect 4 for the pieces in 'position'
+	 * Each direction checks the three ways an empty cell can be the end or the middle of a line of four
+	 */
+	private long getWinningCells(long position, long mask){
+
+		// Vertical, only the cell on top of three pieces
+		long r = (position << 1) & (position << 2) & (position << 3);
+
+		int[] shifts = {columnBits, columnBits - 1, columnBits + 1};
+		for(int i = 0; i < shifts.length; i++){
+			int d = shifts[i];
+
+			long p = (position << d) & (position << (2 * d));
+			r |= p & (position << (3 * d));
+			r |= p & (position >>> d);
+
+			p = (position >>> d) & (position >>> (2 * d));
+			r |= p & (position << d);
+			r |= p & (position >>> (3 * d));
+		}
+
+		return r & (boardMask ^ mask);
+	}
+
+	private long getColumnMask(int col){
+		return ((1L << rowSize) - 1) << (col * columnBits);
+	}
+
+	/**
+	 * Return a transposition table key of the position, the same for the position and its mirror image
+	 * current + mask is a unique number for every position, mixed so the low bits spread over the table
+	 */
+	private long getKey(long current, long mask){
+		long key = current + mask;
+
+		// current + mask never carries from one column into the next, so its columns can be flipped like the board
+		long mirror = 0L;
+		long column = (1L << columnBits) - 1;
+		for(int col = 0; col < columnSize; col++){
+			mirror |= ((key >>> (col * columnBits)) & column) << ((columnSize - 1 - col) * columnBits);
+		}
+		key = Math.min(key, mirror);
+
+		key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+		key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+		return key ^ (key >>> 31);
+	}
+
+	/**
+	 * Return the pieces of 'side' on 'board' in the bit layout of a BitBoard, or every piece if 'side' is -1
+	 */
+	private long getBits(Board board, int side){
+
+		long bits = 0L;
+		for(int col = 0; col < columnSize; col++){
+			for(int height = 0; height < board.getHeight(col); height++){
+				if(side == -1 || board.getSideAt(rowSize - 1 - height, col) == side){
+					bits |= 1L << (col * columnBits + height);
+				}
+			}
+		}
+
+		return bits;
+	}
+}
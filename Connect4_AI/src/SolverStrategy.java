@@ -0,0 +1,42 @@
+
+/**
+ * Strategy of the "solver" Players: play perfectly with a Solver that keeps its transposition table between moves
+ * Solving the first moves of a game can take minutes, so until 'minMoves' pieces are on the board the move is
+ * picked by an AlphaBetaStrategy with the time of the SearchLimits instead, as it is on boards the Solver does not support
+ * The opening book is not probed once the Solver takes over, book moves come from depth limited searches and are not proven
+ * @author Avery Swank
+ */
+public class SolverStrategy implements Strategy {
+
+	private int minMoves;
+	private Solver solver;
+	private AlphaBetaStrategy opening;
+	private SearchStats lastStats;
+
+	public SolverStrategy(int _minMoves){
+		minMoves = _minMoves;
+		opening = new AlphaBetaStrategy();
+	}
+
+	public int chooseMove(Board board, int side, SearchLimits limits){
+
+		if(board.getNumMoves() < minMoves || !Solver.supports(board)){
+			int col = opening.chooseMove(board, side, limits);
+			lastStats = opening.getLastStats();
+			return col;
+		}
+
+		// The table is made the first time a position is solved, games that never get that far do not pay for it
+		if(solver == null || !solver.fits(board)){
+			solver = new Solver(board.getRowSize(), board.getColumnSize(), new TransTable(Solver.DEFAULT_SIZE_MB));
+		}
+		SearchResult result = solver.bestMove(board, side);
+
+		lastStats = result.getStats();
+		return result.getColumn();
+	}
+
+	public SearchStats getLastStats(){
+		return lastStats;
+	}
+}
@@ -0,0 +1,24 @@
+
+/**
+ * Picks the moves of one Player
+ *
+ * Game creates one Strategy for each of its Players through the StrategyRegistry and keeps it for every game it plays,
+ * so a Strategy can keep what it learned, ie a transposition table, from one move and one game to the next
+ * @author Avery Swank
+ */
+public interface Strategy {
+
+	/**
+	 * Return the column to play for side 'side' (0 or 1) on 'board', searching no further than 'limits'
+	 * The board must be the same when this returns as when it was called
+	 */
+	int chooseMove(Board board, int side, SearchLimits limits);
+
+	/**
+	 * Return the work done by the last chooseMove()
+	 * Otherwise return null if the strategy does not count its work, Game then counts the positions it added to the board
+	 */
+	default SearchStats getLastStats(){
+		return null;
+	}
+}
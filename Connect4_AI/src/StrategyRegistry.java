@@ -0,0 +1,96 @@
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Every type of Player by name, ie "alphabeta" for a Player of type "alphabeta:8"
+ *
+ * Each name has a factory that makes a new Strategy for a Player and a factory that reads the SearchLimits out of
+ * the parameters of its type. New engines are added with register() instead of editing Game
+ * @author Avery Swank
+ */
+public class StrategyRegistry {
+
+	private static final ConcurrentHashMap<String, Registration> strategies = new ConcurrentHashMap<String, Registration>();
+
+	static {
+		register("human", p -> (board, side, limits) -> Search.humanMove(board, p), p -> SearchLimits.NONE);
+		register("random", p -> (board, side, limits) -> Search.random(board), p -> SearchLimits.NONE);
+		register("naive", p -> (board, side, limits) -> Search.naive(board, side), p -> SearchLimits.NONE);
+		register("simple", p -> (board, side, limits) -> Search.simple(board, side), p -> SearchLimits.NONE);
+		register("heuristic", p -> (board, side, limits) -> Search.nextBestMove(board, side), p -> SearchLimits.NONE);
+		register("minimax", p -> (board, side, limits) -> Search.minimax(board, side), p -> SearchLimits.NONE);
+
+		// alphabeta:depth, iterative:millis, parallel:depth:threads, solver:minMoves:millis
+		register("alphabeta", p -> new AlphaBetaStrategy(), p -> new SearchLimits(p.getTypeParameter(8), 0, 1));
+		register("iterative", p -> new AlphaBetaStrategy(), p -> new SearchLimits(0, p.getTypeParameter(1000), 1));
+		register("parallel", p -> new ParallelStrategy(), 
+				 p -> new SearchLimits(p.getTypeParameter(0, 8), 0, p.getTypeParameter(1, Runtime.getRuntime().availableProcessors())));
+		register("solver", p -> new SolverStrategy(p.getTypeParameter(0, 12)), p -> new SearchLimits(0, p.getTypeParameter(1, 1000), 1));
+
+		// mcts:iterations:millis:exploration, the exploration constant in hundredths ie mcts:0:500:141 for 500 milliseconds with 1.41
+		register("mcts", p -> new MonteCarloStrategy(p.getTypeParameter(2, 141) / 100.0, Playout.RANDOM), 
+				 p -> new SearchLimits(0, p.getTypeParameter(1, 0), 1, p.getTypeParameter(0, 10000)));
+
+		// mcts-root:iterations:millis:threads:exploration and mcts-tree with the same parameters, see ParallelMonteCarlo
+		register("mcts-root", p -> new ParallelMonteCarloStrategy(p.getTypeParameter(3, 141) / 100.0, ParallelMonteCarlo.ROOT_PARALLEL), 
+				 p -> new SearchLimits(0, p.getTypeParameter(1, 0), p.getTypeParameter(2, Runtime.getRuntime().availableProcessors()), p.getTypeParameter(0, 10000)));
+		register("mcts-tree", p -> new ParallelMonteCarloStrategy(p.getTypeParameter(3, 141) / 100.0, ParallelMonteCarlo.TREE_PARALLEL), 
+				 p -> new SearchLimits(0, p.getTypeParameter(1, 0), p.getTypeParameter(2, Runtime.getRuntime().availableProcessors()), p.getTypeParameter(0, 10000)));
+		register("mcts-naive", p -> new MonteCarloStrategy(p.getTypeParameter(2, 141) / 100.0, Playout.NAIVE), 
+				 p -> new SearchLimits(0, p.getTypeParameter(1, 0), 1, p.getTypeParameter(0, 10000)));
+	}
+
+	/**
+	 * Add or replace the Player type called 'name'
+	 * 'factory' makes a new Strategy for a Player of that type, 'limits' reads its SearchLimits from the Player's type parameters
+	 */
+	public static void register(String name, Function<Player, Strategy> factory, Function<Player, SearchLimits> limits){
+
+		if(name.isEmpty() || name.contains(":")) throw new Error("Invalid Player type name");
+
+		strategies.put(name, new Registration(factory, limits));
+	}
+
+	/**
+	 * Return true if there is a Player type called 'name'
+	 */
+	public static boolean isRegistered(String name){
+		return strategies.containsKey(name);
+	}
+
+	/**
+	 * Return a new Strategy for 'player', it is only meant to play for that one Player
+	 */
+	public static Strategy create(Player player){
+		return getRegistration(player).factory.apply(player);
+	}
+
+	/**
+	 * Return the SearchLimits of 'player' read from the parameters of its type
+	 */
+	public static SearchLimits getLimits(Player player){
+		return getRegistration(player).limits.apply(player);
+	}
+
+	private static Registration getRegistration(Player player){
+
+		Registration registration = strategies.get(player.getTypeName());
+		if(registration == null) throw new Error("Invalid Player Type: " + player.getType());
+
+		return registration;
+	}
+
+	/**
+	 * The two factories of a Player type
+	 */
+	private static class Registration {
+
+		private Function<Player, Strategy> factory;
+		private Function<Player, SearchLimits> limits;
+
+		public Registration(Function<Player, Strategy> _factory, Function<Player, SearchLimits> _limits){
+			factory = _factory;
+			limits = _limits;
+		}
+	}
+}
@@ -0,0 +1,187 @@
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays the games of many pairings at the same time across a pool of threads
+ *
+ * The games of every pairing are split into batches across the threads. Each thread keeps one Game, with its own Board
+ * and Strategies, per pairing and plays every batch of that pairing it gets on it, so no board or strategy is ever
+ * shared between threads and the strategies keep their caches from one batch to the next, as they do over a Match.
+ * Results go into a thread-safe PairingStats for each pairing instead of Player.giveWin(), so the same Player objects
+ * can be in many pairings at once
+ * @author Avery Swank
+ */
+public class Tournament {
+
+	private int rowSize;
+	private int columnSize;
+	private int connect;
+	private int threads;
+
+	private ArrayList<PairingStats> pairings;
+
+	// Every game played is appended here as a GameRecord, may be null
+	private GameLog log;
+
+	public Tournament(int _rowSize, int _columnSize, int _threads){
+		this(_rowSize, _columnSize, 4, _threads);
+	}
+
+	public Tournament(int _rowSize, int _columnSize, int _connect, int _threads){
+
+		if(_threads < 1) throw new Error("Invalid number of threads");
+
+		rowSize = _rowSize;
+		columnSize = _columnSize;
+		connect = _connect;
+		threads = _threads;
+		pairings = new ArrayList<PairingStats>();
+	}
+
+	/**
+	 * Append every game of the tournament to 'log', from whichever thread played it. null stops logging
+	 */
+	public void setGameLog(GameLog _log){
+		log = _log;
+	}
+
+	/**
+	 * Add a pairing of 'numGames' games between 'p1' and 'p2', 'p1' moves first in every game
+	 * Return the stats that will hold the results once the tournament is played
+	 */
+	public PairingStats addPairing(Player p1, Player p2, int numGames){
+
+		if(p1.getSymbol().equals(p2.getSymbol())) throw new Error("Both Players cannot have the same symbol");
+		if(p1.getTypeName().equals("human") || p2.getTypeName().equals("human")) throw new Error("Human Players cannot play in a Tournament");
+
+		PairingStats stats = new PairingStats(p1, p2, numGames);
+		pairings.add(stats);
+		return stats;
+	}
+
+	/**
+	 * Play every game of every pairing and wait for all of them to finish
+	 */
+	public void play(){
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		ArrayList<Future<?>> futures = new ArrayList<Future<?>>();
+
+		// games.get(i) holds the Game of pairing i of every thread that played some of its batches
+		ArrayList<ArrayList<Game>> games = new ArrayList<ArrayList<Game>>();
+
+		try{
+			// Enough batches per pairing to keep every thread busy, but big enough that a batch is more than one game
+			for(int i = 0; i < pairings.size(); i++){
+				PairingStats stats = pairings.get(i);
+				ArrayList<Game> pairingGames = new ArrayList<Game>();
+				ThreadLocal<Game> threadGame = ThreadLocal.withInitial(() -> newGame(stats, pairingGames));
+				games.add(pairingGames);
+
+				int batchSize = Math.max(1, stats.getNumGames() / (threads * 4));
+				for(int start = 0; start < stats.getNumGames(); start += batchSize){
+					int count = Math.min(batchSize, stats.getNumGames() - start);
+					futures.add(pool.submit(() -> playBatch(stats, threadGame.get(), count)));
+				}
+			}
+
+			for(int i = 0; i < futures.size(); i++){
+				futures.get(i).get();
+			}
+
+			// Each Game counts the search work of every batch it played
+			for(int i = 0; i < pairings.size(); i++){
+				PairingStats stats = pairings.get(i);
+				ArrayList<Game> pairingGames = games.get(i);
+				for(int g = 0; g < pairingGames.size(); g++){
+					Game game = pairingGames.get(g);
+					stats.addSearchStats(game.getStats(stats.getPlayer1()), game.getStats(stats.getPlayer2()));
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new Error("Tournament interrupted");
+		} catch (ExecutionException e) {
+			throw new Error("Error playing Tournament", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Play 'games' games of a pairing on 'game', the Game of this thread for that pairing
+	 * An Error stops the batch and reaches play() through its Future
+	 */
+	private void playBatch(PairingStats stats, Game game, int games){
+
+		Board board = game.getBoard();
+		for(int g = 0; g < games; g++){
+			Player winner = game.play();
+			stats.addGame(winner, board.getNumMoves());
+			if(log != null){
+				log.append(game.getRecord());
+			}
+			board.emptyBoard();
+		}
+	}
+
+	/**
+	 * Return a new Game of a pairing for the thread calling this, with its own board and strategies, and add it to 'games'
+	 */
+	private Game newGame(PairingStats stats, ArrayList<Game> games){
+
+		Game game = new Game(newBoard(), stats.getPlayer1(), stats.getPlayer2());
+		synchronized(games){
+			games.add(game);
+		}
+		return game;
+	}
+
+	/**
+	 * Return the fastest board for the size of this tournament, see Board.create()
+	 */
+	private Board newBoard(){
+		return Board.create(rowSize, columnSize, connect);
+	}
+
+	/**
+	 * Return the stats of every pairing in the order they were added
+	 */
+	public ArrayList<PairingStats> getPairings(){
+		return pairings;
+	}
+
+	/**
+	 * Return the results of every pairing as CSV, with a header row
+	 */
+	public String toCsv(){
+		String s = Match.CSV_HEADER + "\n";
+		for(int i = 0; i < pairings.size(); i++){
+			s += pairings.get(i).toCsv();
+		}
+		return s;
+	}
+
+	/**
+	 * Return the results of every pairing as a JSON array with one object per player per pairing
+	 */
+	public String toJson(){
+		String s = "[";
+		for(int i = 0; i < pairings.size(); i++){
+			s += pairings.get(i).toJson() + (i < pairings.size() - 1 ? ", " : "");
+		}
+		s += "]";
+		return s;
+	}
+
+	public String toString(){
+		String s = "";
+		for(int i = 0; i < pairings.size(); i++){
+			s += pairings.get(i) + "\n";
+		}
+		return s;
+	}
+}
@@ -0,0 +1,130 @@
+
+/**
+ * Transposition table: a fixed size cache of search results keyed by Board.getCanonicalKey()
+ *
+ * The same position can be reached by many different move orders, so a search that remembers what it already found
+ * does not have to search those positions again. Entries are stored in a single long[] so the table never allocates
+ * after it is created. Each bucket holds two entries:
+ *   - a depth-preferred entry that is only replaced by a search at least as deep
+ *   - an always-replace entry for everything else
+ * @author Avery Swank
+ */
+public class TransTable {
+
+	public static final int DEFAULT_SIZE_MB = 4;
+
+	// Bound types: how the stored score relates to the real score of the position
+	public static final int EXACT = 1;
+	public static final int LOWER = 2;
+	public static final int UPPER = 3;
+
+	// Each entry is 2 longs (key, data) and each bucket is 2 entries
+	private static final int LONGS_PER_BUCKET = 4;
+
+	private long[] table;
+	private int bucketMask;
+
+	public TransTable(int megabytes){
+
+		if(megabytes < 1) throw new Error("Invalid transposition table size");
+
+		// Largest power of two number of buckets that fits in the given size
+		long buckets = ((long) megabytes * 1024 * 1024) / (LONGS_PER_BUCKET * 8);
+		int numBuckets = Integer.highestOneBit((int) Math.min(buckets, 1 << 28));
+
+		table = new long[numBuckets * LONGS_PER_BUCKET];
+		bucketMask = numBuckets - 1;
+	}
+
+	/**
+	 * Return the packed data stored for 'key', read it with getScore(), getDepth(), getBound() and getMove()
+	 * Otherwise return 0 if the position is not in the table
+	 *
+	 * Keys are stored XORed with their data, so an entry that was half written by another thread never matches
+	 */
+	public long probe(long key){
+
+		int index = (int) (key & bucketMask) * LONGS_PER_BUCKET;
+		for(int i = index; i < index + LONGS_PER_BUCKET; i += 2){
+			long data = table[i + 1];
+			if(data != 0 && (table[i] ^ data) == key){
+				return data;
+			}
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Store a search result for 'key'
+	 * 'move' is the best column found, or -1 if there is none
+	 */
+	public void store(long key, int depth, int bound, int score, int move){
+
+		long data = pack(depth, bound, score, move);
+		int index = (int) (key & bucketMask) * LONGS_PER_BUCKET;
+
+		// The depth-preferred entry keeps the deepest search of the position in this bucket
+		long deepData = table[index + 1];
+		if(deepData == 0 || (table[index] ^ deepData) == key || depth >= getDepth(deepData)){
+			table[index] = key ^ data;
+			table[index + 1] = data;
+			return;
+		}
+
+		table[index + 2] = key ^ data;
+		table[index + 3] = data;
+	}
+
+	/**
+	 * Empty every entry in the table
+	 */
+	public void clear(){
+		for(int i = 0; i < table.length; i++){
+			table[i] = 0;
+		}
+	}
+
+	/**
+	 * Return the number of entries the table can hold
+	 */
+	public int getCapacity(){
+		return table.length / 2;
+	}
+
+	/**
+	 * Pack an entry into a single long: score in the low 32 bits, then 8 bits of depth, 2 bits of bound and 8 bits of move
+	 * The bound is never 0, so packed data is never 0 and 0 can mean an empty entry
+	 */
+	private static long pack(int depth, int bound, int score, int move){
+		return (score & 0xFFFFFFFFL) | ((long) (depth & 0xFF) << 32) | ((long) bound << 40) | ((long) (move + 1) << 42);
+	}
+
+	/**
+	 * Return the score of packed data
+	 */
+	public static int getScore(long data){
+		return (int) data;
+	}
+
+	/**
+	 * Return the depth searched of packed data
+	 */
+	public static int getDepth(long data){
+		return (int) (data >>> 32) & 0xFF;
+	}
+
+	/**
+	 * Return the bound type (EXACT, LOWER or UPPER) of packed data
+	 */
+	public static int getBound(long data){
+		return (int) (data >>> 40) & 0x3;
+	}
+
+	/**
+	 * Return the best column of packed data, -1 if there is none
+	 */
+	public static int getMove(long data){
+		return (int) (data >>> 42) - 1;
+	}
+}
@@ -0,0 +1,203 @@
+/**
+ * Same game board as BitBoard for boards that do not fit in one long, ie 8x9: every column is its own long
+ *
+ * Bit h of column c is the piece at height h of that column, counted from the bottom. A whole column is one word, so
+ * vertical lines are shifts inside one long like a BitBoard, and the other lines are found by ANDing neighbouring columns:
+ *   horizontal          columns[c] & columns[c+1] & ... & columns[c+connect-1]
+ *   bottom-left to up   columns[c] & (columns[c+1] >>> 1) & ... & (columns[c+connect-1] >>> (connect-1))
+ *   top-left to down    columns[c] & (columns[c+1] << 1) & ... & (columns[c+connect-1] << (connect-1))
+ * which checks every row of those columns at once. Boards up to 64 rows and any number of columns fit
+ * @author Avery Swank
+ */
+public class WideBitBoard extends Board {
+
+	// columns[side][column] = pieces of the first and second symbol played on this board
+	private long[][] columns;
+
+	private int[] heights;
+	private int numMoves;
+
+	public WideBitBoard(int _rowSize, int _columnSize){
+		this(_rowSize, _columnSize, 4);
+	}
+
+	public WideBitBoard(int _rowSize, int _columnSize, int _connect){
+		super(_rowSize, _columnSize, _connect, false);
+
+		if(_rowSize > 64) throw new Error("Board is too tall for a WideBitBoard");
+
+		columns = new long[2][_columnSize];
+		heights = getHeightArray();
+		numMoves = 0;
+	}
+
+	/**
+	 * Set all spaces in the board to empty
+	 */
+	public void emptyBoard(){
+		super.emptyBoard();
+
+		for(int c = 0; c < getColumnSize(); c++){
+			columns[0][c] = 0L;
+			columns[1][c] = 0L;
+		}
+		numMoves = 0;
+	}
+
+	/**
+	 * Make 'target' the same position as this board without allocating anything, see Board.copyInto()
+	 */
+	public void copyInto(Board target){
+		super.copyInto(target);
+
+		WideBitBoard board = (WideBitBoard) target;
+		System.arraycopy(columns[0], 0, board.columns[0], 0, getColumnSize());
+		System.arraycopy(columns[1], 0, board.columns[1], 0, getColumnSize());
+		board.numMoves = numMoves;
+	}
+
+	protected Board newEmptyBoard(){
+		return new WideBitBoard(getRowSize(), getColumnSize(), getConnectLength());
+	}
+
+	/**
+	 * Return the side (0 or 1) of the piece at position (row, column)
+	 * Otherwise return -1 if it is empty
+	 */
+	public int getSideAt(int row, int column){
+
+		if(row < 0 || row > getRowSize() - 1) throw new Error("Invalid row position");
+		if(column < 0 || column > getColumnSize() - 1) throw new Error("Invalid column position");
+
+		// Rows are counted from the top of the board, bits from the bottom of the column
+		int height = getRowSize() - 1 - row;
+		if(height >= heights[column]){
+			return -1;
+		}
+
+		return ((columns[0][column] >>> height) & 1L) != 0 ? 0 : 1;
+	}
+
+	/**
+	 * Return the number of moves played on the board
+	 */
+	public int getNumMoves(){
+		return numMoves;
+	}
+
+	/**
+	 * Return true if the entire board is full, check for tie games
+	 */
+	public boolean isBoardFull(){
+		return numMoves == getRowSize() * getColumnSize();
+	}
+
+	/**
+	 * Play a piece of side 'side' (0 or 1) on a column, set the bit above the top piece of that column
+	 */
+	public void addPiece(int column, int side){
+
+		if(isFull(column)) throw new Error("Cannot add a symbol to a full column");
+		if(side < 0 || side > 1) throw new Error("Invalid side");
+
+		updateLines(column, heights[column], side, 1);
+		columns[side][column] |= 1L << heights[column];
+		key ^= zobrist[side][column * getRowSize() + heights[column]];
+		mirrorKey ^= zobrist[side][getMirrorColumn(column) * getRowSize() + heights[column]];
+		heights[column]++;
+		numMoves++;
+		numAdded++;
+	}
+
+	/**
+	 * Remove the top piece of a column. Necessary for search algorithms when creating multiple boards
+	 */
+	public void removeSymbol(int column){
+
+		if(column < 0 || column > getColumnSize() - 1) throw new Error("Invalid column position");
+		if(heights[column] == 0) throw new Error("Cannot Remove a Symbol from an empty column");
+
+		// Only one of the two sides has the top bit, clear it from both
+		heights[column]--;
+		long bit = 1L << heights[column];
+		int side = (columns[0][column] & bit) != 0 ? 0 : 1;
+		columns[0][column] &= ~bit;
+		columns[1][column] &= ~bit;
+		key ^= zobrist[side][column * getRowSize() + heights[column]];
+		mirrorKey ^= zobrist[side][getMirrorColumn(column) * getRowSize() + heights[column]];
+		numMoves--;
+		updateLines(column, heights[column], side, -1);
+	}
+
+	/**
+	 * Return the symbol that has a connect 4
+	 * Otherwise return "" indicating that no player has a Connect 4
+	 */
+	public String getConnect4(Player p1, Player p2){
+
+		int side1 = findSide(p1.getSymbol());
+		if(side1 != -1 && hasConnect(columns[side1], 0, getColumnSize() - 1)){
+			return p1.getSymbol();
+		}
+
+		int side2 = findSide(p2.getSymbol());
+		if(side2 != -1 && hasConnect(columns[side2], 0, getColumnSize() - 1)){
+			return p2.getSymbol();
+		}
+
+		return "";
+	}
+
+	/**
+	 * Return true if the top piece of a column is part of a Connect 4
+	 * Only the lines through that column are checked, so call this right after addPiece(column)
+	 */
+	public boolean hasWonAfter(int column){
+
+		if(column < 0 || column > getColumnSize() - 1) throw new Error("Invalid column position");
+		if(heights[column] == 0) return false;
+
+		long bit = 1L << (heights[column] - 1);
+		int side = (columns[0][column] & bit) != 0 ? 0 : 1;
+		return hasConnect(columns[side], column, column);
+	}
+
+	/**
+	 * Return true if the pieces in 'words' have connect in a row on a line through any column from 'first' to 'last'
+	 */
+	private boolean hasConnect(long[] words, int first, int last){
+
+		int connect = getConnectLength();
+
+		// Vertical, connect bits in a row inside one column
+		for(int c = first; c <= last; c++){
+			long run = words[c];
+			for(int k = 1; k < connect && run != 0; k++){
+				run &= words[c] >>> k;
+			}
+			if(run != 0){
+				return true;
+			}
+		}
+
+		// Horizontal and the two diagonals, every line of connect columns starting at 'start' that reaches 'first' to 'last'
+		int lastStart = Math.min(last, getColumnSize() - connect);
+		for(int start = Math.max(0, first - connect + 1); start <= lastStart; start++){
+			long horizontal = words[start];
+			long up = words[start];
+			long down = words[start];
+			for(int k = 1; k < connect && (horizontal | up | down) != 0; k++){
+				long word = words[start + k];
+				horizontal &= word;
+				up &= word >>> k;
+				down &= word << k;
+			}
+			if((horizontal | up | down) != 0){
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+}
@@ -0,0 +1,105 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the binary form of GameRecord and of reading it back from a GameLog
+ * @author Avery Swank
+ */
+public class GameRecordTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Return a record of 'numMoves' random columns of a board 'columnSize' wide
+	 */
+	private static GameRecord randomRecord(Random random, int columnSize, int numMoves){
+
+		byte[] moves = new byte[numMoves];
+		for(int i = 0; i < numMoves; i++){
+			moves[i] = (byte) random.nextInt(columnSize);
+		}
+
+		return new GameRecord(6, columnSize, 4, "alphabeta:" + random.nextInt(12), "random", (byte) random.nextInt(3), moves);
+	}
+
+	@Test(expected = Error.class)
+	public void rejectsMoreThan255Columns(){
+		new GameRecord(6, 256, 4, "random", "random", GameRecord.TIE, new byte[0]);
+	}
+
+	@Test
+	public void writeReadRoundTrip(){
+
+		Random random = new Random(1);
+		GameRecord[] records = {randomRecord(random, 7, 42), randomRecord(random, 255, 300), randomRecord(random, 7, 0)};
+
+		for(int i = 0; i < records.length; i++){
+			ByteBuffer buffer = ByteBuffer.allocate(records[i].getNumBytes());
+			records[i].write(buffer);
+			assertEquals(0, buffer.remaining());
+
+			buffer.flip();
+			assertEquals(records[i].getNumBytes(), GameRecord.peekNumBytes(buffer));
+			assertEquals(records[i].toString(), GameRecord.read(buffer).toString());
+		}
+	}
+
+	@Test
+	public void peekRecordCutByBufferBoundary(){
+
+		GameRecord record = randomRecord(new Random(2), 7, 42);
+		ByteBuffer whole = ByteBuffer.allocate(record.getNumBytes());
+		record.write(whole);
+
+		// Every place a buffer can end inside the record, peekNumBytes either cannot tell or tells the whole size
+		for(int end = 0; end < whole.capacity(); end++){
+			ByteBuffer part = whole.duplicate();
+			part.position(0);
+			part.limit(end);
+
+			int bytes = GameRecord.peekNumBytes(part);
+			assertTrue("peekNumBytes " + bytes + " with " + end + " bytes", bytes == -1 || bytes == record.getNumBytes());
+			assertEquals(0, part.position());
+		}
+	}
+
+	@Test
+	public void gameLogRoundTripAcrossBuffers() throws IOException {
+
+		// Far more than the 64KB buffers the log writes and reads with, so records are cut at the ends of buffers
+		Random random = new Random(3);
+		ArrayList<GameRecord> records = new ArrayList<GameRecord>();
+		long bytes = 0;
+		while(bytes < 5 * (1 << 16)){
+			GameRecord record = randomRecord(random, 7 + random.nextInt(249), random.nextInt(2000));
+			records.add(record);
+			bytes += record.getNumBytes();
+		}
+
+		Path path = folder.newFile("games.log").toPath();
+		GameLog log = new GameLog(path);
+		for(int i = 0; i < records.size(); i++){
+			log.append(records.get(i));
+		}
+		log.close();
+
+		ArrayList<String> read = new ArrayList<String>();
+		GameLog.read(path, record -> read.add(record.toString()));
+
+		assertEquals(records.size(), read.size());
+		for(int i = 0; i < records.size(); i++){
+			assertEquals(records.get(i).toString(), read.get(i));
+		}
+	}
+}
@@ -0,0 +1,50 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of the tree parallel search of ParallelMonteCarlo
+ * @author Avery Swank
+ */
+public class ParallelMonteCarloTest {
+
+	/**
+	 * Return a BitBoard with 'moves' played from an empty board, the first side plays the first move
+	 */
+	private static Board play(String moves){
+
+		Board board = new BitBoard();
+		for(int i = 0; i < moves.length(); i++){
+			board.addPiece(moves.charAt(i) - '0', i % 2);
+		}
+
+		return board;
+	}
+
+	@Test
+	public void treeParallelFindsWinInOne(){
+
+		// Three in a row on the bottom row, column 3 wins
+		Board board = play("051625");
+		ParallelMonteCarlo search = new ParallelMonteCarlo(1.41, Playout.RANDOM, ParallelMonteCarlo.TREE_PARALLEL, 4);
+		SearchResult result = search.search(board, 0, 20000, 0);
+
+		assertEquals(3, result.getColumn());
+	}
+
+	@Test
+	public void treeParallelFindsForcedWin(){
+
+		// Two in a row on the bottom row with both ends open, columns 1 and 4 make an open three the other side cannot stop
+		Board board = play("2233");
+		ParallelMonteCarlo search = new ParallelMonteCarlo(1.41, Playout.RANDOM, ParallelMonteCarlo.TREE_PARALLEL, 4);
+		String before = board.toString();
+
+		for(int i = 0; i < 5; i++){
+			SearchResult result = search.search(board, 0, 50000, 0);
+			assertTrue("played column " + result.getColumn(), result.getColumn() == 1 || result.getColumn() == 4);
+		}
+		assertEquals("search changed the board", before, board.toString());
+	}
+}